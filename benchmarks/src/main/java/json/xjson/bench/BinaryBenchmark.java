@@ -0,0 +1,81 @@
+package json.xjson.bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import json.xjson.XJSON;
+
+/**
+ * the binary codec against utf-8 text for the same tree, encoding with
+ * toBinary and stringifyToBytes, decoding with parseBinary and parse
+ * */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BinaryBenchmark {
+
+	@Param({"small", "objects", "numbers", "strings"})
+	public String shape;
+
+	Object data;
+	String text;
+	byte[] binary;
+
+	@Setup
+	public void setup() {
+		Random r = new Random(42);
+		XJSON.useBeautifyMode(false);
+		String json;
+		switch(shape) {
+		case "small":
+			json = Payloads.smallObject(r);
+			break;
+		case "objects":
+			json = "{\"items\":" + Payloads.objectArray(r, 1000) + "}";
+			break;
+		case "numbers":
+			json = Payloads.numbers(r);
+			break;
+		default:
+			json = Payloads.strings(r);
+		}
+		data = XJSON.parse(json);
+		text = XJSON.stringify(data);
+		binary = XJSON.toBinary(data);
+	}
+
+	@Benchmark
+	public byte[] encodeText() {
+		return XJSON.stringifyToBytes(data);
+	}
+
+	@Benchmark
+	public byte[] encodeBinary() {
+		return XJSON.toBinary(data);
+	}
+
+	@Benchmark
+	public Object decodeText() {
+		return XJSON.parse(text);
+	}
+
+	@Benchmark
+	public Object decodeBinary() {
+		return XJSON.parseBinary(binary);
+	}
+}
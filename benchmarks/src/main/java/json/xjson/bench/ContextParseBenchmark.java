@@ -0,0 +1,80 @@
+package json.xjson.bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import json.xjson.XJSON;
+import json.xjson.XJSONContext;
+import json.xjson.XJSONObject;
+
+/**
+ * sustained parseCompact of a rotating set of documents, a fresh tree per
+ * document against one XJSONContext reset after every document. run with
+ * -prof gc, gc.alloc.rate.norm and gc.count are the numbers to compare.
+ * */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ContextParseBenchmark {
+
+	static final int DOCUMENTS = 64;
+
+	@Param({"small", "numbers", "strings"})
+	public String shape;
+
+	String[] docs;
+	int next;
+	XJSONContext ctx;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		Random r = new Random(42);
+		docs = new String[DOCUMENTS];
+		for(int i = 0; i < DOCUMENTS; i++) {
+			switch(shape) {
+			case "small":
+				docs[i] = Payloads.smallObject(r);
+				break;
+			case "numbers":
+				docs[i] = Payloads.numbers(r);
+				break;
+			default:
+				docs[i] = Payloads.strings(r);
+			}
+		}
+		ctx = new XJSONContext();
+	}
+
+	String nextDocument() {
+		String json = docs[next];
+		next = (next + 1) % DOCUMENTS;
+		return json;
+	}
+
+	@Benchmark
+	public XJSONObject parseCompact() {
+		return XJSON.parseCompact(nextDocument());
+	}
+
+	@Benchmark
+	public XJSONObject parseCompactContext() {
+		ctx.reset();
+		return XJSON.parseCompact(nextDocument(), ctx);
+	}
+}
@@ -0,0 +1,72 @@
+package json.xjson.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import json.TestObj;
+import json.xjson.XJSON;
+
+/**
+ * stringify of a large List<TestObj> by fork-join pool size, 0 is the
+ * serial encoder
+ * */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParallelStringifyBenchmark {
+
+	@Param({"0", "1", "2", "4", "8"})
+	public int cores;
+
+	@Param({"100000"})
+	public int size;
+
+	List<TestObj> data;
+	ForkJoinPool pool;
+
+	@Setup
+	public void setup() {
+		XJSON.useBeautifyMode(false);
+		data = new ArrayList<>(size);
+		for(int i = 0; i < size; i++) {
+			data.add(new TestObj(true));
+		}
+		if(cores > 0) {
+			pool = new ForkJoinPool(cores);
+			XJSON.useParallelMode(1024, pool);
+		} else {
+			XJSON.useParallelMode(0);
+		}
+	}
+
+	@TearDown
+	public void tearDown() {
+		XJSON.useParallelMode(0);
+		if(pool != null) {
+			pool.shutdown();
+		}
+	}
+
+	@Benchmark
+	public String stringify() {
+		return XJSON.stringify(data);
+	}
+}
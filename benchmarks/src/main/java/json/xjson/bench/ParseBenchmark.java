@@ -0,0 +1,111 @@
+package json.xjson.bench;
+
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import json.TestObj;
+import json.xjson.XJSON;
+
+/**
+ * XJSON.parse, parseList and parse(String, Class) over the payload shapes
+ * */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParseBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class Objects {
+
+		@Param({"small", "deep", "numbers", "strings"})
+		public String shape;
+
+		String json;
+
+		@Setup
+		public void setup() {
+			Random r = new Random(42);
+			switch(shape) {
+			case "small":
+				json = Payloads.smallObject(r);
+				break;
+			case "deep":
+				json = Payloads.deep(r, 64);
+				break;
+			case "numbers":
+				json = Payloads.numbers(r);
+				break;
+			default:
+				json = Payloads.strings(r);
+			}
+			XJSON.parse(json);
+		}
+	}
+
+	@State(Scope.Benchmark)
+	public static class Arrays {
+
+		@Param({"objects", "numbers"})
+		public String shape;
+
+		String json;
+
+		@Setup
+		public void setup() {
+			Random r = new Random(42);
+			json = "objects".equals(shape) ? 
+					Payloads.objectArray(r, 1000) : Payloads.numberArray(r, 10000);
+			XJSON.parseList(json);
+		}
+	}
+
+	@State(Scope.Benchmark)
+	public static class Pojos {
+
+		String json;
+		String list;
+
+		@Setup
+		public void setup() {
+			XJSON.useBeautifyMode(false);
+			json = XJSON.stringify(new TestObj(true));
+			list = XJSON.stringify(new TestObj[] {new TestObj(true), new TestObj(true)});
+		}
+	}
+
+	@Benchmark
+	public LinkedHashMap<String, Object> parse(Objects in) {
+		return XJSON.parse(in.json);
+	}
+
+	@Benchmark
+	public LinkedList<Object> parseList(Arrays in) {
+		return XJSON.parseList(in.json);
+	}
+
+	@Benchmark
+	public TestObj parseClass(Pojos in) {
+		return XJSON.parse(in.json, TestObj.class);
+	}
+
+	@Benchmark
+	public LinkedList<TestObj> parseClassList(Pojos in) {
+		return XJSON.parseList(in.list, TestObj.class);
+	}
+}
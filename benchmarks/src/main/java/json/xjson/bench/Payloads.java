@@ -0,0 +1,128 @@
+package json.xjson.bench;
+
+import java.util.Random;
+
+/**
+ * json inputs of the shapes the benchmarks run over. numbers stay non
+ * negative and without exponents so every shape is readable by
+ * XJSON.parse as well as the newer parsers.
+ * */
+class Payloads {
+
+	static final String[] WORDS = {
+		"alpha", "beta", "gamma", "delta", "epsilon", "zeta", "eta", "theta"
+	};
+
+	/**
+	 * a dozen scalar members, the typical request or event
+	 * */
+	static String smallObject(Random r) {
+		StringBuilder sb = new StringBuilder("{");
+		sb.append("\"id\":").append(r.nextInt(1000000)).append(',');
+		sb.append("\"name\":\"").append(WORDS[r.nextInt(WORDS.length)]).append("\",");
+		sb.append("\"active\":").append(r.nextBoolean()).append(',');
+		sb.append("\"score\":").append(r.nextInt(1000)).append('.').append(r.nextInt(100)).append(',');
+		sb.append("\"created\":\"2024-01-0").append(1 + r.nextInt(9)).append(" 10:00:00\",");
+		sb.append("\"count\":").append(r.nextInt(100)).append(',');
+		sb.append("\"owner\":\"").append(WORDS[r.nextInt(WORDS.length)]).append("\",");
+		sb.append("\"region\":\"eu-west-").append(r.nextInt(3)).append("\",");
+		sb.append("\"version\":").append(r.nextInt(10)).append(',');
+		sb.append("\"ratio\":0.").append(r.nextInt(1000)).append(',');
+		sb.append("\"deleted\":false,");
+		sb.append("\"note\":null}");
+		return sb.toString();
+	}
+
+	/**
+	 * objects nested depth levels deep, one array at every level
+	 * */
+	static String deep(Random r, int depth) {
+		StringBuilder sb = new StringBuilder();
+		for(int i = 0; i < depth; i++) {
+			sb.append("{\"level\":").append(i).append(",\"tags\":[\"")
+				.append(WORDS[r.nextInt(WORDS.length)]).append("\"],\"child\":");
+		}
+		sb.append("null");
+		for(int i = 0; i < depth; i++) {
+			sb.append('}');
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * a top level array of small objects
+	 * */
+	static String objectArray(Random r, int n) {
+		StringBuilder sb = new StringBuilder("[");
+		for(int i = 0; i < n; i++) {
+			if(i > 0) {
+				sb.append(',');
+			}
+			sb.append(smallObject(r));
+		}
+		return sb.append(']').toString();
+	}
+
+	/**
+	 * a top level array of integers and decimals
+	 * */
+	static String numberArray(Random r, int n) {
+		StringBuilder sb = new StringBuilder("[");
+		for(int i = 0; i < n; i++) {
+			if(i > 0) {
+				sb.append(',');
+			}
+			if((i & 1) == 0) {
+				sb.append(r.nextInt(Integer.MAX_VALUE));
+			} else {
+				sb.append(r.nextInt(100000)).append('.').append(r.nextInt(1000000));
+			}
+		}
+		return sb.append(']').toString();
+	}
+
+	/**
+	 * an object holding number arrays, the metrics or time series shape
+	 * */
+	static String numbers(Random r) {
+		StringBuilder sb = new StringBuilder("{");
+		for(int k = 0; k < 8; k++) {
+			if(k > 0) {
+				sb.append(',');
+			}
+			sb.append("\"series").append(k).append("\":").append(numberArray(r, 64));
+		}
+		return sb.append('}').toString();
+	}
+
+	/**
+	 * long texts with quotes, unicode and escapes
+	 * */
+	static String strings(Random r) {
+		StringBuilder sb = new StringBuilder("{");
+		for(int k = 0; k < 16; k++) {
+			if(k > 0) {
+				sb.append(',');
+			}
+			sb.append("\"text").append(k).append("\":\"");
+			for(int w = 0; w < 24; w++) {
+				sb.append(WORDS[r.nextInt(WORDS.length)]);
+				switch(r.nextInt(6)) {
+				case 0:
+					sb.append(" \\\"quoted\\\" ");
+					break;
+				case 1:
+					sb.append(" grüße 日本 ");
+					break;
+				case 2:
+					sb.append("\\/");
+					break;
+				default:
+					sb.append(' ');
+				}
+			}
+			sb.append('"');
+		}
+		return sb.append('}').toString();
+	}
+}
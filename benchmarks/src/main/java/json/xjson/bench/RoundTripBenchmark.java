@@ -0,0 +1,69 @@
+package json.xjson.bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import json.xjson.XJSON;
+
+/**
+ * XJSON.stringify(XJSON.parse(json)), the map round trip of a proxy
+ * that rewrites documents it does not bind to classes
+ * */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RoundTripBenchmark {
+
+	@Param({"small", "items", "deep", "numbers", "strings"})
+	public String shape;
+
+	String json;
+
+	@Setup
+	public void setup() {
+		Random r = new Random(42);
+		XJSON.useBeautifyMode(false);
+		switch(shape) {
+		case "small":
+			json = Payloads.smallObject(r);
+			break;
+		case "items":
+			json = "{\"items\":" + Payloads.objectArray(r, 200) + "}";
+			break;
+		case "deep":
+			json = Payloads.deep(r, 64);
+			break;
+		case "numbers":
+			json = Payloads.numbers(r);
+			break;
+		default:
+			json = Payloads.strings(r);
+		}
+		XJSON.stringify(XJSON.parse(json));
+	}
+
+	@Benchmark
+	public String roundTrip() {
+		return XJSON.stringify(XJSON.parse(json));
+	}
+
+	@Benchmark
+	public byte[] roundTripToBytes() {
+		return XJSON.stringifyToBytes(XJSON.parse(json));
+	}
+}
@@ -0,0 +1,71 @@
+package json.xjson.bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import json.TestObj;
+import json.xjson.XJSON;
+
+/**
+ * XJSON.stringify of parsed trees of every shape and of TestObj
+ * */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StringifyBenchmark {
+
+	@Param({"small", "deep", "objects", "numbers", "strings", "pojo"})
+	public String shape;
+
+	Object data;
+
+	@Setup
+	public void setup() {
+		Random r = new Random(42);
+		XJSON.useBeautifyMode(false);
+		switch(shape) {
+		case "small":
+			data = XJSON.parse(Payloads.smallObject(r));
+			break;
+		case "deep":
+			data = XJSON.parse(Payloads.deep(r, 64));
+			break;
+		case "objects":
+			data = XJSON.parseList(Payloads.objectArray(r, 1000));
+			break;
+		case "numbers":
+			data = XJSON.parse(Payloads.numbers(r));
+			break;
+		case "strings":
+			data = XJSON.parse(Payloads.strings(r));
+			break;
+		default:
+			data = new TestObj(true);
+		}
+	}
+
+	@Benchmark
+	public String stringify() {
+		return XJSON.stringify(data);
+	}
+
+	@Benchmark
+	public byte[] stringifyToBytes() {
+		return XJSON.stringifyToBytes(data);
+	}
+}
@@ -0,0 +1,699 @@
+package json;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import json.xjson.XJSON;
+import json.xjson.XJSONArray;
+import json.xjson.XJSONCodec;
+import json.xjson.XJSONContext;
+import json.xjson.XJSONCreator;
+import json.xjson.XJSONDocument;
+import json.xjson.XJSONDocumentStore;
+import json.xjson.XJSONEvent;
+import json.xjson.XJSONFormat;
+import json.xjson.XJSONGenerator;
+import json.xjson.XJSONLimits;
+import json.xjson.XJSONLinesWriter;
+import json.xjson.XJSONListener;
+import json.xjson.XJSONMetrics;
+import json.xjson.XJSONObject;
+import json.xjson.XJSONOmit;
+import json.xjson.XJSONReader;
+
+public class Test {
+	
+	public static void xjsonTest() {
+		TestObj obj = new TestObj(true);
+		try {
+			String json = XJSON.stringify(obj);
+			System.out.println("********");
+			System.out.println(json);
+			System.out.println("********");
+			
+			TestObj p = XJSON.parse(json,  TestObj.class);
+			System.out.println(p.ret);
+			System.out.println(p.c);
+			System.out.println(p.b);
+			System.out.println(p.code);
+			System.out.println(p.t);
+			System.out.println(p.msg);
+			System.out.println(p.bigB.doubleValue());
+			Queue<TestObj> qu = p.list.get(0);
+			for(TestObj o: qu) {
+				System.out.println(o.ret);
+				System.out.println(p.c);
+				System.out.println(p.b);
+				System.out.println(o.code);
+				System.out.println(o.t);
+				System.out.println(o.msg);
+				System.out.println(o.bigB.doubleValue());
+			}
+
+			System.out.println("********");
+			XJSON.useBeautifyMode(false);
+			String str = XJSON.stringify(p);
+			System.out.println(str);
+			System.out.println("********");
+			
+
+			System.out.println("********");
+			p = XJSON.parse(str, TestObj.class);
+			System.out.println(p.list.get(0).peek().bigB.doubleValue());
+			System.out.println("********");
+		} catch (Exception e) {
+			e.printStackTrace();
+		}
+	}
+
+	public static void testArr() {
+
+		TestObj obj = new TestObj(true);
+		
+		try {
+			String json = XJSON.stringify(Arrays.asList(obj));
+//			json = json.replace("172714.124", "172 714.124");
+			System.out.println(json);
+			LinkedList<TestObj> jsonArr = XJSON.parseList(json, TestObj.class);
+			TestObj p = jsonArr.get(0);
+			System.out.println(p.ret);
+			System.out.println(p.code);
+			System.out.println(p.t);
+			System.out.println(p.msg);
+			
+
+			System.out.println("********");
+			String str = XJSON.stringify(jsonArr);
+			System.out.println(str);
+			System.out.println("********");
+
+			System.out.println("********");
+			jsonArr = XJSON.parseList(str, TestObj.class);
+			System.out.println(jsonArr.get(0).list.get(0).peek().bigB.doubleValue());
+			System.out.println("********");
+		} catch (Exception e) {
+			e.printStackTrace();
+		}
+	}
+	
+	public static void testMapRoundTrip() {
+		StringBuilder sb = new StringBuilder("{\"items\":[");
+		for(int i = 0; i < 200; i++) {
+			if(i > 0) {
+				sb.append(',');
+			}
+			sb.append("{\"id\":").append(i)
+				.append(",\"name\":\"item").append(i).append('"')
+				.append(",\"price\":").append(i * 1.25)
+				.append(",\"tags\":[\"a\",\"b\"]")
+				.append(",\"stock\":{\"count\":").append(i * 3)
+				.append(",\"active\":true}}");
+		}
+		sb.append("]}");
+		String json = sb.toString();
+		
+		try {
+			XJSON.useBeautifyMode(false);
+			LinkedHashMap<String, Object> tree = XJSON.parse(json);
+			String str = XJSON.stringify(tree);
+			System.out.println("round trip equals: " + json.equals(str));
+
+			int rounds = 20000;
+			for(int i = 0; i < rounds; i++) {
+				XJSON.stringify(XJSON.parse(json));
+			}
+			long start = System.nanoTime();
+			for(int i = 0; i < rounds; i++) {
+				XJSON.stringify(XJSON.parse(json));
+			}
+			long cost = System.nanoTime() - start;
+			System.out.println("parse -> stringify: " + 
+					(rounds * 1000_000_000L / cost) + " ops/s, " + 
+					json.length() + " chars");
+		} catch (Exception e) {
+			e.printStackTrace();
+		}
+	}
+	
+	static long usedHeap() {
+		for(int i = 0; i < 4; i++) {
+			System.gc();
+		}
+		Runtime rt = Runtime.getRuntime();
+		return rt.totalMemory() - rt.freeMemory();
+	}
+
+	public static void testTreeFootprint() {
+		StringBuilder sb = new StringBuilder("{\"name\":\"catalog\",\"entries\":[");
+		for(int i = 0; i < 20; i++) {
+			if(i > 0) {
+				sb.append(',');
+			}
+			sb.append("{\"sku\":\"A").append(i).append('"')
+				.append(",\"price\":").append(i * 0.75)
+				.append(",\"qty\":").append(i)
+				.append(",\"enabled\":true,\"dims\":[").append(i).append(",2,3]}");
+		}
+		sb.append("]}");
+		String json = sb.toString();
+		int docs = 20000;
+		
+		try {
+			Object[] keep = new Object[docs];
+			long base = usedHeap();
+			for(int i = 0; i < docs; i++) {
+				keep[i] = XJSON.parse(json);
+			}
+			long legacy = usedHeap() - base;
+			Arrays.fill(keep, null);
+			
+			base = usedHeap();
+			for(int i = 0; i < docs; i++) {
+				keep[i] = XJSON.parseCompact(json);
+			}
+			long compact = usedHeap() - base;
+			System.out.println("input: " + json.length() * 2 + " bytes per document");
+			System.out.println("LinkedHashMap tree: " + legacy / docs + " bytes per document");
+			System.out.println("compact tree: " + compact / docs + " bytes per document");
+			System.out.println(keep.length);
+		} catch (Exception e) {
+			e.printStackTrace();
+		}
+	}
+	
+	public static void testNumberArrayFootprint() {
+		StringBuilder sb = new StringBuilder("[");
+		for(int i = 0; i < 1000000; i++) {
+			if(i > 0) {
+				sb.append(',');
+			}
+			sb.append(i % 1000).append('.').append(i % 7 + 1);
+		}
+		sb.append(']');
+		String json = sb.toString();
+		
+		try {
+			long base = usedHeap();
+			Object legacy = XJSON.parseList(json);
+			long legacySize = usedHeap() - base;
+			
+			base = usedHeap();
+			XJSONArray compact = XJSON.parseCompactList(json);
+			long compactSize = usedHeap() - base;
+			System.out.println("LinkedList of Double: " + legacySize / 1024 + " KB");
+			System.out.println("double[] backed: " + compactSize / 1024 + " KB, " + 
+					compact.isDoubleArray() + " " + compact.getDouble(1));
+			System.out.println(legacy.hashCode() == compact.hashCode());
+		} catch (Exception e) {
+			e.printStackTrace();
+		}
+	}
+	
+	public static void testMixedNumberArray() {
+		XJSON.useBeautifyMode(false);
+		String json = "[1,2.5,-3,4.0]";
+		XJSONArray arr = XJSON.parseCompactList(json);
+		System.out.println(arr.isDoubleArray() + " " + arr.get(0) + " " + XJSON.stringify(arr));
+		System.out.println(XJSON.stringify(XJSON.parseCompactList(json, new XJSONContext())));
+		System.out.println(XJSON.parseCompactList("[0.5,2.5]").isDoubleArray());
+	}
+	
+	/**
+	 * bytes allocated per document by this thread, fresh trees against
+	 * a context reset after every document
+	 * */
+	public static void testContextAllocation() {
+		String json = "{\"id\":12345,\"name\":\"order\",\"price\":19.99,\"paid\":true," +
+				"\"tags\":[\"a\",\"b\"],\"items\":[{\"sku\":1,\"qty\":2},{\"sku\":7,\"qty\":1}]}";
+		com.sun.management.ThreadMXBean mx = (com.sun.management.ThreadMXBean)
+				java.lang.management.ManagementFactory.getThreadMXBean();
+		long tid = Thread.currentThread().getId();
+		int rounds = 1000000;
+		try {
+			for(int i = 0; i < rounds; i++) {
+				XJSON.parseCompact(json);
+			}
+			long base = mx.getThreadAllocatedBytes(tid);
+			for(int i = 0; i < rounds; i++) {
+				XJSON.parseCompact(json);
+			}
+			long fresh = mx.getThreadAllocatedBytes(tid) - base;
+			
+			XJSONContext ctx = new XJSONContext();
+			for(int i = 0; i < rounds; i++) {
+				XJSON.parseCompact(json, ctx);
+				ctx.reset();
+			}
+			base = mx.getThreadAllocatedBytes(tid);
+			for(int i = 0; i < rounds; i++) {
+				XJSON.parseCompact(json, ctx);
+				ctx.reset();
+			}
+			long reused = mx.getThreadAllocatedBytes(tid) - base;
+			System.out.println("parseCompact: " + fresh / rounds + " bytes/doc");
+			System.out.println("with context: " + reused / rounds + " bytes/doc");
+		} catch (Exception e) {
+			e.printStackTrace();
+		}
+	}
+	
+	/**
+	 * heap kept per cached document, LinkedHashMap trees against
+	 * off-heap tapes
+	 * */
+	public static void testOffHeapFootprint() {
+		String json = "{\"id\":12345,\"name\":\"order\",\"price\":19.99,\"paid\":true," +
+				"\"tags\":[\"a\",\"b\"],\"items\":[{\"sku\":1,\"qty\":2},{\"sku\":7,\"qty\":1}]}";
+		int count = 100000;
+		try {
+			Object[] trees = new Object[count];
+			long base = usedHeap();
+			for(int i = 0; i < count; i++) {
+				trees[i] = XJSON.parse(json);
+			}
+			long treeSize = usedHeap() - base;
+			System.out.println(trees[count - 1].equals(trees[0]));
+			trees = null;
+			
+			XJSONDocumentStore store = new XJSONDocumentStore();
+			XJSONDocument[] docs = new XJSONDocument[count];
+			base = usedHeap();
+			for(int i = 0; i < count; i++) {
+				docs[i] = store.add(json);
+			}
+			long handleSize = usedHeap() - base;
+			System.out.println("LinkedHashMap tree: " + treeSize / count + " bytes/doc on heap");
+			System.out.println("off-heap document: " + handleSize / count + " bytes/doc on heap, " + 
+					store.offHeapBytes() / count + " bytes/doc off heap");
+			System.out.println(docs[count - 1].getLong("items", 1, "sku") + " " + 
+					docs[0].toMap().equals(XJSON.parse(json)));
+			store.close();
+		} catch (Exception e) {
+			e.printStackTrace();
+		}
+	}
+	
+	/**
+	 * size and time of the binary codec against text on TestObj
+	 * */
+	public static void testBinaryCodec() {
+		TestObj obj = new TestObj(true);
+		int rounds = 200000;
+		try {
+			XJSON.useBeautifyMode(false);
+			String text = XJSON.stringify(obj);
+			byte[] bin = XJSON.toBinary(obj);
+			System.out.println("text: " + XJSON.stringifyToBytes(obj).length + " bytes, binary: " + bin.length + " bytes");
+			
+			for(int w = 0; w < 2; w++) {
+				long start = System.nanoTime();
+				for(int i = 0; i < rounds; i++) {
+					XJSON.parse(XJSON.stringify(obj), TestObj.class);
+				}
+				long textTime = System.nanoTime() - start;
+				start = System.nanoTime();
+				for(int i = 0; i < rounds; i++) {
+					XJSON.parseBinary(XJSON.toBinary(obj), TestObj.class);
+				}
+				long binTime = System.nanoTime() - start;
+				System.out.println("text round trip: " + textTime / rounds + " ns, binary round trip: " + binTime / rounds + " ns");
+			}
+			System.out.println(XJSON.binaryToText(XJSON.textToBinary(text)).equals(text));
+		} catch (Exception e) {
+			e.printStackTrace();
+		}
+	}
+	
+	record Item(int sku, long qty, String name, List<Integer> tags) {}
+	
+	static final class Money {
+		final String currency;
+		final double amount;
+		
+		@XJSONCreator({"currency", "amount"})
+		Money(String currency, double amount) {
+			this.currency = currency;
+			this.amount = amount;
+		}
+	}
+	
+	public static void testRecordBinding() {
+		try {
+			XJSON.useBeautifyMode(false);
+			Item item = XJSON.parse("{\"sku\":7,\"qty\":3,\"name\":\"pen\",\"tags\":[1,2]}", Item.class);
+			System.out.println(item);
+			System.out.println(XJSON.parse(XJSON.stringify(item), Item.class).equals(item));
+			Money m = XJSON.parse("{\"currency\":\"EUR\",\"amount\":10}", Money.class);
+			System.out.println(m.currency + " " + m.amount);
+		} catch (Exception e) {
+			e.printStackTrace();
+		}
+	}
+	
+	public static void testParseInto() {
+		TestObj obj = new TestObj(true);
+		try {
+			String json = XJSON.stringify(obj);
+			TestObj target = new TestObj(true);
+			target.list = new LinkedList<>(target.list);
+			List<Queue<TestObj>> list = target.list;
+			XJSON.parseInto(json, target);
+			System.out.println((target.list == list) + " " + target.list.size() + " " + target.code);
+			
+			XJSON.parseInto("{\"code\":7}", target, true);
+			System.out.println(target.code + " " + target.msg + " " + (target.list == list));
+			XJSON.parseInto("{\"code\":8}", target);
+			System.out.println(target.code + " " + target.msg + " " + target.list);
+		} catch (Exception e) {
+			e.printStackTrace();
+		}
+	}
+	
+	@SuppressWarnings("unchecked")
+	public static void testConvert() {
+		TestObj obj = new TestObj(true);
+		int rounds = 200000;
+		try {
+			LinkedHashMap<String, Object> map = XJSON.convert(obj, LinkedHashMap.class);
+			TestObj back = XJSON.convert(map, TestObj.class);
+			System.out.println(map.keySet() + " " + back.list.get(0).peek().bigB);
+			System.out.println(XJSON.convert(obj, TestObj.class) == obj);
+			
+			long start = System.nanoTime();
+			for(int i = 0; i < rounds; i++) {
+				XJSON.parse(XJSON.stringify(obj), TestObj.class);
+			}
+			long text = System.nanoTime() - start;
+			start = System.nanoTime();
+			for(int i = 0; i < rounds; i++) {
+				XJSON.convert(XJSON.convert(obj, LinkedHashMap.class), TestObj.class);
+			}
+			long direct = System.nanoTime() - start;
+			System.out.println("through text: " + text / rounds + " ns, convert: " + direct / rounds + " ns");
+		} catch (Exception e) {
+			e.printStackTrace();
+		}
+	}
+	
+	static final class Range {
+		int min;
+		int max;
+	}
+	
+	static final class Slot {
+		Range range;
+		java.util.UUID id;
+	}
+	
+	public static void testCodec() {
+		XJSON.setCodec(Range.class, new XJSONCodec<Range>() {
+			@Override
+			public void write(XJSONGenerator out, Range value) {
+				out.beginArray().writeInt(value.min).writeInt(value.max).endArray();
+			}
+			
+			@Override
+			public Range read(XJSONReader in) {
+				Range r = new Range();
+				in.beginArray();
+				r.min = in.nextInt();
+				r.max = in.nextInt();
+				in.endArray();
+				return r;
+			}
+		});
+		XJSON.setSerializer(java.util.UUID.class, (Object obj) -> obj.toString());
+		XJSON.setDeserializer(java.util.UUID.class, (String obj) -> java.util.UUID.fromString(obj));
+		try {
+			XJSON.useBeautifyMode(false);
+			Slot slot = new Slot();
+			slot.range = new Range();
+			slot.range.min = 3;
+			slot.range.max = 9;
+			slot.id = java.util.UUID.randomUUID();
+			String json = XJSON.stringify(slot);
+			System.out.println(json);
+			Slot back = XJSON.parse(json, Slot.class);
+			System.out.println(back.range.min + " " + back.range.max + " " + back.id.equals(slot.id));
+		} catch (Exception e) {
+			e.printStackTrace();
+		}
+	}
+	
+	public static void testMetrics() {
+		XJSONMetrics metrics = new XJSONMetrics();
+		XJSONListener printer = new XJSONListener() {
+			@Override
+			public void onParse(XJSONEvent e) {
+				System.out.println(e + " depth=" + e.depth() + " elements=" + e.elements());
+			}
+		};
+		XJSON.addListener(metrics);
+		XJSON.addListener(printer);
+		XJSON.useFlightRecorderMode(true);
+		try {
+			XJSON.useBeautifyMode(false);
+			String json = XJSON.stringify(new TestObj(true));
+			for(int i = 0; i < 3; i++) {
+				XJSON.parse(json, TestObj.class);
+			}
+			XJSON.parse("{\"a\":[1,{\"b\":2}]}");
+			try {
+				XJSON.parseList("{}");
+			} catch (Exception e) {
+			}
+			System.out.print(metrics);
+		} catch (Exception e) {
+			e.printStackTrace();
+		} finally {
+			XJSON.useFlightRecorderMode(false);
+			XJSON.removeListener(metrics);
+			XJSON.removeListener(printer);
+		}
+	}
+	
+	public static void testParseCache() {
+		XJSON.useParseCache(1 << 20);
+		try {
+			XJSON.useBeautifyMode(false);
+			String json = XJSON.stringify(new TestObj(true));
+			int n = 20000;
+			long t = System.nanoTime();
+			for(int i = 0; i < n; i++) {
+				XJSON.parseCompact(new String(json));
+			}
+			long cached = System.nanoTime() - t;
+			XJSON.useParseCache(0);
+			t = System.nanoTime();
+			for(int i = 0; i < n; i++) {
+				XJSON.parseCompact(new String(json));
+			}
+			long plain = System.nanoTime() - t;
+			XJSON.useParseCache(1 << 20);
+			XJSONObject a = XJSON.parseCompact(json);
+			XJSONObject b = XJSON.parseCompact(json);
+			XJSONObject c = XJSON.parseCompact(json);
+			System.out.println("shared " + (b == c) + " equal " + a.equals(c));
+			System.out.println("cached " + cached / n + "ns, uncached " + plain / n + "ns");
+			System.out.println(XJSON.parseCacheStats());
+		} catch (Exception e) {
+			e.printStackTrace();
+		} finally {
+			XJSON.useParseCache(0);
+		}
+	}
+	
+	public static void testPublishList() {
+		XJSON.useBeautifyMode(false);
+		StringBuilder sb = new StringBuilder("[");
+		for(int i = 0; i < 1000; i++) {
+			sb.append(i == 0 ? "" : ",").append(XJSON.stringify(new TestObj(true)));
+		}
+		String json = sb.append(']').toString();
+		CountDownLatch done = new CountDownLatch(1);
+		XJSON.publishList(new StringReader(json), TestObj.class).subscribe(new Flow.Subscriber<TestObj>() {
+			Flow.Subscription subscription;
+			int count;
+			
+			@Override
+			public void onSubscribe(Flow.Subscription s) {
+				subscription = s;
+				s.request(8);
+			}
+			
+			@Override
+			public void onNext(TestObj item) {
+				if(++count % 8 == 0) {
+					subscription.request(8);
+				}
+			}
+			
+			@Override
+			public void onError(Throwable t) {
+				t.printStackTrace();
+				done.countDown();
+			}
+			
+			@Override
+			public void onComplete() {
+				System.out.println("received " + count);
+				done.countDown();
+			}
+		});
+		try {
+			done.await();
+		} catch (InterruptedException e) {
+			e.printStackTrace();
+		}
+	}
+	
+	public static void testLazySequence() {
+		XJSON.useBeautifyMode(false);
+		StringWriter out = new StringWriter();
+		Map<String, Object> page = new LinkedHashMap<>();
+		page.put("total", 3);
+		page.put("rows", IntStream.range(0, 3).mapToObj(i -> new TestObj(true)));
+		XJSON.stringify(page, out);
+		System.out.println(out.toString().length() + " chars");
+		System.out.println(XJSON.stringify(Arrays.asList("a", "b").iterator()));
+	}
+	
+	public static void testParallelStringify() {
+		XJSON.useBeautifyMode(false);
+		List<TestObj> list = new ArrayList<>();
+		for(int i = 0; i < 20000; i++) {
+			list.add(new TestObj(true));
+		}
+		long t = System.nanoTime();
+		String serial = XJSON.stringify(list);
+		long serialTime = System.nanoTime() - t;
+		XJSON.useParallelMode(1024);
+		try {
+			t = System.nanoTime();
+			String parallel = XJSON.stringify(list);
+			long parallelTime = System.nanoTime() - t;
+			System.out.println("identical " + serial.equals(parallel) + ", serial " + serialTime / 1000000 + 
+					"ms, parallel " + parallelTime / 1000000 + "ms");
+		} finally {
+			XJSON.useParallelMode(0);
+		}
+	}
+	
+	public static void testLinesWriter() {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try(XJSONLinesWriter out = new XJSONLinesWriter(bytes, true)) {
+			for(int i = 0; i < 100000; i++) {
+				out.write(new TestObj(true));
+			}
+			out.flush();
+			System.out.println(out.records() + " records, " + out.bytes() + " bytes, " + bytes.size() + " gzipped");
+		} catch (Exception e) {
+			e.printStackTrace();
+		}
+	}
+	
+	/**
+	 * a record failing after more than a buffer of it was encoded leaves
+	 * no partial line behind
+	 * */
+	public static void testLinesWriterFailure() {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		List<String> big = new ArrayList<>();
+		for(int i = 0; i < 40000; i++) {
+			big.add("item-" + i);
+		}
+		Map<String, Object> torn = new LinkedHashMap<>();
+		torn.put("items", big);
+		torn.put("tail", (Supplier<String>) () -> {
+			throw new IllegalStateException("getter failed");
+		});
+		try(XJSONLinesWriter out = new XJSONLinesWriter(Channels.newChannel(bytes), false, 1 << 16)) {
+			out.write(new TestObj(true));
+			try {
+				out.write(torn);
+			} catch (RuntimeException e) {
+				System.out.println("dropped: " + e.getMessage());
+			}
+			out.write(new TestObj(true));
+			out.flush();
+			String[] lines = new String(bytes.toByteArray(), StandardCharsets.UTF_8).split("\n");
+			for(String line: lines) {
+				XJSON.parse(line, TestObj.class);
+			}
+			System.out.println(out.records() + " records, " + lines.length + " lines");
+		} catch (Exception e) {
+			e.printStackTrace();
+		}
+	}
+	
+	public static void testViews() {
+		XJSON.useBeautifyMode(false);
+		XJSON.defineView("summary", TestObj.class, "code", "msg");
+		TestObj obj = new TestObj(true);
+		System.out.println(XJSON.stringify(obj, "summary"));
+		XJSON.useOmitMode(XJSONOmit.DEFAULTS);
+		try {
+			System.out.println(XJSON.stringify(new TestObj()));
+		} finally {
+			XJSON.useOmitMode(XJSONOmit.NONE);
+		}
+	}
+	
+	public static void testLimits() {
+		XJSON.useBeautifyMode(false);
+		TestObj obj = new TestObj(true);
+		Queue<TestObj> q = new LinkedList<>();
+		q.add(obj);
+		obj.list = new ArrayList<>(obj.list);
+		obj.list.add(q);
+		XJSONLimits limits = new XJSONLimits().maxBytes(256).maxElements(8).maxStringLength(32);
+		System.out.println(XJSON.stringify(obj, limits));
+	}
+	
+	public static void testReformat() {
+		String json = "{ \"price\" : 0.10000000000000000001, \"tags\" : [ ], \"items\" : [ {\"id\":1}, {\"id\":2} ] }";
+		String pretty = XJSON.reformat(json, new XJSONFormat().indent(4).spaceAfterColon(true));
+		System.out.println(pretty);
+		System.out.println(XJSON.reformat(pretty, new XJSONFormat()));
+	}
+	
+	public static void main(String[] args) {
+		xjsonTest();
+//		testArr();
+//		testMapRoundTrip();
+//		testTreeFootprint();
+//		testNumberArrayFootprint();
+//		testMixedNumberArray();
+//		testContextAllocation();
+//		testOffHeapFootprint();
+//		testBinaryCodec();
+//		testRecordBinding();
+//		testParseInto();
+//		testConvert();
+//		testCodec();
+//		testMetrics();
+//		testParseCache();
+//		testPublishList();
+//		testLazySequence();
+//		testParallelStringify();
+//		testLinesWriter();
+//		testLinesWriterFailure();
+//		testViews();
+//		testLimits();
+//		testReformat();
+	}
+}
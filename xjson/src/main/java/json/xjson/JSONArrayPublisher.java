@@ -0,0 +1,189 @@
+package json.xjson;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * emits the elements of a top level json array read from a Reader.
+ * an element is read and parsed only when the subscriber has requested
+ * it, so memory holds one element however long the array is.
+ * reading blocks in the executor's thread, a virtual thread executor or
+ * a pool sized for blocking io suits it, the default pool starts daemon
+ * threads on demand.
+ * the Reader is consumed once, a second subscriber gets onError.
+ * */
+class JSONArrayPublisher<T> implements Flow.Publisher<T> {
+
+	static final ExecutorService DEFAULT = Executors.newCachedThreadPool(r -> {
+		Thread t = new Thread(r, "xjson-publisher");
+		t.setDaemon(true);
+		return t;
+	});
+
+	final Reader in;
+	final Class<T> clazz;
+	final Executor executor;
+	final AtomicBoolean subscribed = new AtomicBoolean();
+
+	JSONArrayPublisher(Reader in, Class<T> clazz, Executor executor) {
+		this.in = in;
+		this.clazz = clazz;
+		this.executor = executor;
+	}
+
+	@Override
+	public void subscribe(Flow.Subscriber<? super T> subscriber) {
+		if(null == subscriber) {
+			throw new NullPointerException("subscriber can not be null.");
+		}
+		if(!subscribed.compareAndSet(false, true)) {
+			subscriber.onSubscribe(new Flow.Subscription() {
+				@Override
+				public void request(long n) {
+				}
+
+				@Override
+				public void cancel() {
+				}
+			});
+			subscriber.onError(new IllegalStateException("json array publisher allows only one subscriber."));
+			return;
+		}
+		subscriber.onSubscribe(new Emitter(subscriber));
+	}
+
+	@SuppressWarnings("unchecked")
+	T convert(String text) {
+		Object value = JSONElementReader.decode(text);
+		if(clazz == Object.class) {
+			return (T) value;
+		}
+		return (T) JSONReflect.convert(value, clazz);
+	}
+
+	void close() {
+		try {
+			in.close();
+		} catch(IOException e) {
+			// nothing to report after the stream ended
+		}
+	}
+
+	/**
+	 * request and cancel only record state and schedule run, which is
+	 * never active twice at once, so the subscriber's callbacks are
+	 * serialised as the Flow contract requires
+	 * */
+	final class Emitter implements Flow.Subscription, Runnable {
+
+		final Flow.Subscriber<? super T> subscriber;
+		final JSONElementReader reader = new JSONElementReader(in);
+		final AtomicLong demand = new AtomicLong();
+		final AtomicInteger wip = new AtomicInteger();
+		volatile boolean cancelled;
+		volatile Throwable invalid;
+		boolean done;
+
+		Emitter(Flow.Subscriber<? super T> subscriber) {
+			this.subscriber = subscriber;
+		}
+
+		@Override
+		public void request(long n) {
+			if(n <= 0) {
+				invalid = new IllegalArgumentException("request must be positive, got " + n + ".");
+			} else {
+				demand.getAndUpdate(d -> d + n < 0 ? Long.MAX_VALUE : d + n);
+			}
+			schedule();
+		}
+
+		@Override
+		public void cancel() {
+			cancelled = true;
+			schedule();
+		}
+
+		void schedule() {
+			if(wip.getAndIncrement() == 0) {
+				try {
+					executor.execute(this);
+				} catch(RejectedExecutionException e) {
+					done = true;
+					close();
+					subscriber.onError(e);
+				}
+			}
+		}
+
+		@Override
+		public void run() {
+			int missed = 1;
+			for(;;) {
+				drain();
+				missed = wip.addAndGet(-missed);
+				if(missed == 0) {
+					return;
+				}
+			}
+		}
+
+		void drain() {
+			while(!done) {
+				if(cancelled) {
+					finish();
+					return;
+				}
+				if(invalid != null) {
+					fail(invalid);
+					return;
+				}
+				long r = demand.get();
+				if(r == 0) {
+					return;
+				}
+				T value;
+				try {
+					String text = reader.next();
+					if(text == null) {
+						finish();
+						subscriber.onComplete();
+						return;
+					}
+					value = convert(text);
+				} catch(IOException | RuntimeException e) {
+					fail(e);
+					return;
+				}
+				try {
+					subscriber.onNext(value);
+				} catch(RuntimeException e) {
+					// a throwing subscriber is treated as cancelled
+					finish();
+					return;
+				}
+				if(r != Long.MAX_VALUE) {
+					demand.decrementAndGet();
+				}
+			}
+		}
+
+		void fail(Throwable e) {
+			finish();
+			subscriber.onError(e);
+		}
+
+		void finish() {
+			done = true;
+			close();
+		}
+	}
+}
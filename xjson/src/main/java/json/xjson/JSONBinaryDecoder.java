@@ -0,0 +1,268 @@
+package json.xjson;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+
+/**
+ * reads the format of JSONBinaryEncoder back, either into the tree
+ * XJSON.parse builds or straight into json text
+ * */
+class JSONBinaryDecoder {
+
+	final byte[] in;
+	int pos;
+	final ArrayList<String> keys = new ArrayList<>();
+
+	JSONBinaryDecoder(byte[] in) throws XJSONException {
+		this.in = in;
+		if(in.length < 3 || in[0] != JSONBinaryEncoder.MAGIC) {
+			throw new XJSONException("not binary json");
+		}
+		if(in[1] != JSONBinaryEncoder.VERSION) {
+			throw new XJSONException("unknown binary json version " + in[1]);
+		}
+		pos = 2;
+	}
+
+	static Object decode(byte[] in) throws XJSONException {
+		JSONBinaryDecoder d = new JSONBinaryDecoder(in);
+		Object ret = d.readValue(0);
+		d.checkEnd();
+		return ret;
+	}
+
+	static String toText(byte[] in) throws XJSONException {
+		JSONBinaryDecoder d = new JSONBinaryDecoder(in);
+		JSONWriter out = JSONWriter.lease(in.length << 1);
+		out.beautify = false;
+		out.sortKeys = false;
+		out.canonical = false;
+		out.view = null;
+		out.omit = 0;
+		try {
+			d.writeValue(out, 0);
+			d.checkEnd();
+			return out.toString();
+		} finally {
+			out.release();
+		}
+	}
+
+	XJSONException error() {
+		return new XJSONException("invalid binary json at byte " + pos);
+	}
+
+	void checkEnd() throws XJSONException {
+		if(pos != in.length) {
+			throw error();
+		}
+	}
+
+	byte readTag() throws XJSONException {
+		if(pos >= in.length) {
+			throw error();
+		}
+		return in[pos++];
+	}
+
+	long readVarint() throws XJSONException {
+		long v = 0;
+		for(int shift = 0; shift < 64; shift += 7) {
+			byte b = readTag();
+			v |= (long) (b & 0x7f) << shift;
+			if(b >= 0) {
+				return v;
+			}
+		}
+		throw error();
+	}
+
+	int readLength() throws XJSONException {
+		long n = readVarint();
+		if(n < 0 || n > in.length - pos) {
+			throw error();
+		}
+		return (int) n;
+	}
+
+	/**
+	 * element and member counts, each one takes at least a byte
+	 * */
+	int readCount() throws XJSONException {
+		return readLength();
+	}
+
+	long readLong() throws XJSONException {
+		long v = readVarint();
+		return (v >>> 1) ^ -(v & 1);
+	}
+
+	double readDouble() throws XJSONException {
+		if(pos + 8 > in.length) {
+			throw error();
+		}
+		long bits = 0;
+		for(int i = 0; i < 8; i++) {
+			bits |= (long) (in[pos++] & 0xff) << (i << 3);
+		}
+		return Double.longBitsToDouble(bits);
+	}
+
+	String readUTF8(int n) {
+		String s = new String(in, pos, n, StandardCharsets.UTF_8);
+		pos += n;
+		return s;
+	}
+
+	String readNumberText() throws XJSONException {
+		int n = readLength();
+		String s = new String(in, pos, n, StandardCharsets.ISO_8859_1);
+		pos += n;
+		return s;
+	}
+
+	String readKey() throws XJSONException {
+		long k = readVarint();
+		if((k & 1) != 0) {
+			long id = k >>> 1;
+			if(id >= keys.size()) {
+				throw error();
+			}
+			return keys.get((int) id);
+		}
+		long n = k >>> 1;
+		if(n > in.length - pos) {
+			throw error();
+		}
+		String key = readUTF8((int) n);
+		keys.add(key);
+		return key;
+	}
+
+	Object readValue(int depth) throws XJSONException {
+		if(depth > JSONTreeParser.MAX_DEPTH) {
+			throw error();
+		}
+		byte tag = readTag();
+		switch(tag) {
+		case JSONBinaryEncoder.NULL:
+			return null;
+		case JSONBinaryEncoder.FALSE:
+			return Boolean.FALSE;
+		case JSONBinaryEncoder.TRUE:
+			return Boolean.TRUE;
+		case JSONBinaryEncoder.INT:
+			long v = readLong();
+			if(v >= Integer.MIN_VALUE && v <= Integer.MAX_VALUE) {
+				return (int) v;
+			}
+			return v;
+		case JSONBinaryEncoder.DOUBLE:
+			return readDouble();
+		case JSONBinaryEncoder.CHAR:
+			return (char) readVarint();
+		case JSONBinaryEncoder.STRING:
+			return readUTF8(readLength());
+		case JSONBinaryEncoder.NUMBER:
+			String text = readNumberText();
+			try {
+				if(text.indexOf('.') < 0 && text.indexOf('e') < 0 && text.indexOf('E') < 0) {
+					return new BigInteger(text);
+				}
+				return new BigDecimal(text);
+			} catch(NumberFormatException e) {
+				throw error();
+			}
+		case JSONBinaryEncoder.ARRAY:
+			int count = readCount();
+			LinkedList<Object> list = new LinkedList<>();
+			for(int i = 0; i < count; i++) {
+				list.add(readValue(depth + 1));
+			}
+			return list;
+		case JSONBinaryEncoder.OBJECT:
+			int members = readCount();
+			LinkedHashMap<String, Object> map = new LinkedHashMap<>();
+			for(int i = 0; i < members; i++) {
+				String key = readKey();
+				map.put(key, readValue(depth + 1));
+			}
+			return map;
+		default:
+			--pos;
+			throw error();
+		}
+	}
+
+	/**
+	 * compact json text, strings are escaped the rfc 8785 way so the text
+	 * reads back to the same strings
+	 * */
+	void writeValue(JSONWriter out, int depth) throws XJSONException {
+		if(depth > JSONTreeParser.MAX_DEPTH) {
+			throw error();
+		}
+		byte tag = readTag();
+		switch(tag) {
+		case JSONBinaryEncoder.NULL:
+			out.append("null");
+			return;
+		case JSONBinaryEncoder.FALSE:
+			out.append("false");
+			return;
+		case JSONBinaryEncoder.TRUE:
+			out.append("true");
+			return;
+		case JSONBinaryEncoder.INT:
+			out.writeLong(readLong());
+			return;
+		case JSONBinaryEncoder.DOUBLE:
+			out.writeDouble(readDouble());
+			return;
+		case JSONBinaryEncoder.CHAR:
+			out.append(JSONEncoder.SINGLE_QUOTE).append((char) readVarint())
+				.append(JSONEncoder.SINGLE_QUOTE);
+			return;
+		case JSONBinaryEncoder.STRING:
+			out.append(JSONEncoder.QUOTE);
+			JSONEncoder.formatCanonicalString(out, readUTF8(readLength()));
+			out.append(JSONEncoder.QUOTE);
+			return;
+		case JSONBinaryEncoder.NUMBER:
+			out.append(readNumberText());
+			return;
+		case JSONBinaryEncoder.ARRAY:
+			int count = readCount();
+			out.append(JSONEncoder.BRACES_L);
+			for(int i = 0; i < count; i++) {
+				if(i > 0) {
+					out.append(JSONEncoder.COMMA);
+				}
+				writeValue(out, depth + 1);
+			}
+			out.append(JSONEncoder.BRACES_R);
+			return;
+		case JSONBinaryEncoder.OBJECT:
+			int members = readCount();
+			out.append(JSONEncoder.B_BRACES_L);
+			for(int i = 0; i < members; i++) {
+				if(i > 0) {
+					out.append(JSONEncoder.COMMA);
+				}
+				out.append(JSONEncoder.QUOTE);
+				JSONEncoder.formatCanonicalString(out, readKey());
+				out.append(JSONEncoder.QUOTE).append(JSONEncoder.COLON);
+				writeValue(out, depth + 1);
+			}
+			out.append(JSONEncoder.B_BRACES_R);
+			return;
+		default:
+			--pos;
+			throw error();
+		}
+	}
+}
@@ -0,0 +1,374 @@
+package json.xjson;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.OptionalInt;
+import java.util.OptionalLong;
+import java.util.function.Supplier;
+
+/**
+ * binary form of the values XJSON.stringify accepts, one tag byte per
+ * value:
+ * 
+ *   NULL FALSE TRUE
+ *   INT     zigzag varint, every integral type up to long
+ *   DOUBLE  8 byte ieee bits, little endian
+ *   CHAR    varint char
+ *   STRING  varint byte length, utf-8 bytes
+ *   NUMBER  varint length, ascii decimal text of numbers no long or
+ *           double holds exactly
+ *   ARRAY   varint count, count values
+ *   OBJECT  varint count, count x (key, value)
+ * 
+ * a key is a varint k, an even k starts a new key of k >> 1 utf-8
+ * bytes and gives it the next id, an odd k refers back to key id k >> 1.
+ * a document starts with MAGIC and VERSION.
+ * classes are written with the field rules of JSONEncoder.formatClass
+ * and dates as the same text, types with a registered codec as the
+ * value of the text the codec writes.
+ * */
+class JSONBinaryEncoder {
+
+	static final byte MAGIC = (byte) 0xb5;
+	static final byte VERSION = 1;
+
+	static final byte NULL = 0;
+	static final byte FALSE = 1;
+	static final byte TRUE = 2;
+	static final byte INT = 3;
+	static final byte DOUBLE = 4;
+	static final byte CHAR = 5;
+	static final byte STRING = 6;
+	static final byte NUMBER = 7;
+	static final byte ARRAY = 8;
+	static final byte OBJECT = 9;
+
+	byte[] buf = new byte[256];
+	int len;
+	final HashMap<String, Integer> keys = new HashMap<>();
+
+	static byte[] encode(Object data) throws XJSONException {
+		JSONBinaryEncoder out = new JSONBinaryEncoder();
+		out.writeHeader();
+		out.writeObject(data, 0);
+		return Arrays.copyOf(out.buf, out.len);
+	}
+
+	/**
+	 * converts json text of any value without building the legacy tree,
+	 * numbers a long or double would round keep their digits
+	 * */
+	static byte[] fromText(String json) throws XJSONException {
+		JSONBinaryEncoder out = new JSONBinaryEncoder();
+		out.writeHeader();
+		out.writeText(json, 0);
+		return Arrays.copyOf(out.buf, out.len);
+	}
+
+	void writeHeader() {
+		ensure(2);
+		buf[len++] = MAGIC;
+		buf[len++] = VERSION;
+	}
+
+	void ensure(int extra) {
+		if(len + extra > buf.length) {
+			buf = Arrays.copyOf(buf, Math.max(buf.length << 1, len + extra));
+		}
+	}
+
+	void writeTag(byte tag) {
+		ensure(1);
+		buf[len++] = tag;
+	}
+
+	void writeVarint(long v) {
+		ensure(10);
+		while((v & ~0x7fL) != 0) {
+			buf[len++] = (byte) ((v & 0x7f) | 0x80);
+			v >>>= 7;
+		}
+		buf[len++] = (byte) v;
+	}
+
+	void writeLong(long v) {
+		writeTag(INT);
+		writeVarint((v << 1) ^ (v >> 63));
+	}
+
+	void writeDouble(double v) {
+		ensure(9);
+		buf[len++] = DOUBLE;
+		long bits = Double.doubleToRawLongBits(v);
+		for(int i = 0; i < 8; i++) {
+			buf[len++] = (byte) (bits >>> (i << 3));
+		}
+	}
+
+	void writeString(String s) {
+		writeTag(STRING);
+		writeUTF8(s);
+	}
+
+	void writeNumber(String text) {
+		writeTag(NUMBER);
+		writeVarint(text.length());
+		ensure(text.length());
+		for(int i = 0; i < text.length(); i++) {
+			buf[len++] = (byte) text.charAt(i);
+		}
+	}
+
+	void writeUTF8(String s) {
+		int n = JSONUtf8.length(s);
+		writeVarint(n);
+		ensure(n);
+		len = JSONUtf8.encode(s, buf, len);
+	}
+
+	void writeKey(String key) {
+		Integer id = keys.get(key);
+		if(id != null) {
+			writeVarint(((long) id << 1) | 1);
+			return;
+		}
+		keys.put(key, keys.size());
+		int n = JSONUtf8.length(key);
+		writeVarint((long) n << 1);
+		ensure(n);
+		len = JSONUtf8.encode(key, buf, len);
+	}
+
+	void writeObject(Object data, int depth) throws XJSONException {
+		if(depth > JSONTreeParser.MAX_DEPTH) {
+			throw new XJSONException("data nested deeper than " + JSONTreeParser.MAX_DEPTH);
+		}
+		if(data == null) {
+			writeTag(NULL);
+			return;
+		}
+		if(data instanceof XJSONRaw) {
+			writeText(((XJSONRaw) data).json, depth);
+			return;
+		}
+		if(!JSONCodecs.WRITERS.isEmpty()) {
+			XJSONCodec<Object> codec = JSONCodecs.writer(data.getClass());
+			if(codec != null) {
+				writeText(JSONEncoder.codecText(codec, data), depth);
+				return;
+			}
+		}
+		if(data instanceof Boolean) {
+			writeTag((Boolean) data ? TRUE : FALSE);
+			return;
+		}
+		if(data instanceof String || data instanceof XJSONString) {
+			writeString(data.toString());
+			return;
+		}
+		if(data instanceof Character) {
+			writeTag(CHAR);
+			writeVarint((Character) data);
+			return;
+		}
+		if(data instanceof Byte || data instanceof Short ||
+				data instanceof Integer || data instanceof Long) {
+			writeLong(((Number) data).longValue());
+			return;
+		}
+		if(data instanceof Float) {
+			// the double the text path reads back from the float's text
+			writeDouble(JSONNumber.floatToDouble((Float) data));
+			return;
+		}
+		if(data instanceof Double) {
+			writeDouble((Double) data);
+			return;
+		}
+		if(data instanceof BigInteger) {
+			BigInteger v = (BigInteger) data;
+			if(v.bitLength() < 64) {
+				writeLong(v.longValue());
+			} else {
+				writeNumber(v.toString());
+			}
+			return;
+		}
+		if(data instanceof BigDecimal) {
+			BigDecimal v = (BigDecimal) data;
+			double d = v.doubleValue();
+			/**
+			 * a double is what the text path reads back, keep the
+			 * digits only when a double can not hold them
+			 * */
+			if(!Double.isInfinite(d) && BigDecimal.valueOf(d).compareTo(v) == 0) {
+				writeDouble(d);
+			} else {
+				writeNumber(v.toString());
+			}
+			return;
+		}
+		if(data instanceof Number) {
+			writeDouble(((Number) data).doubleValue());
+			return;
+		}
+		String date = JSONEncoder.dateString(data);
+		if(date != null) {
+			writeString(date);
+			return;
+		}
+		if(data instanceof XJSONObject) {
+			XJSONObject o = (XJSONObject) data;
+			writeTag(OBJECT);
+			writeVarint(o.keys.length);
+			for(int i = 0; i < o.keys.length; i++) {
+				writeKey(o.keys[i]);
+				writeSlot(o.values[i], o.prims, i, depth + 1);
+			}
+			return;
+		}
+		if(data instanceof XJSONArray) {
+			XJSONArray a = (XJSONArray) data;
+			int n = a.size();
+			writeTag(ARRAY);
+			writeVarint(n);
+			for(int i = 0; i < n; i++) {
+				if(a.items != null) {
+					writeSlot(a.items[i], a.prims, i, depth + 1);
+				} else if(a.doubles != null) {
+					writeDouble(a.doubles[i]);
+				} else {
+					writeLong(a.prims[i]);
+				}
+			}
+			return;
+		}
+		if(data.getClass().isArray()) {
+			int n = Array.getLength(data);
+			writeTag(ARRAY);
+			writeVarint(n);
+			for(int i = 0; i < n; i++) {
+				writeObject(Array.get(data, i), depth + 1);
+			}
+			return;
+		}
+		if(data instanceof Collection) {
+			// a snapshot, so the count written matches the elements that follow
+			writeItems(((Collection<?>) data).toArray(), depth);
+			return;
+		}
+		if(data instanceof Map) {
+			Map<?, ?> m = (Map<?, ?>) data;
+			writeTag(OBJECT);
+			writeVarint(m.size());
+			for(Map.Entry<?, ?> e: m.entrySet()) {
+				writeKey(String.valueOf(e.getKey()));
+				writeObject(e.getValue(), depth + 1);
+			}
+			return;
+		}
+		Iterator<?> seq = data instanceof Iterable ? 
+				((Iterable<?>) data).iterator() : JSONEncoder.sequence(data);
+		if(seq != null) {
+			// the element count comes first, so a one shot sequence is collected
+			ArrayList<Object> items = new ArrayList<>();
+			seq.forEachRemaining(items::add);
+			writeItems(items.toArray(), depth);
+			return;
+		}
+		if(data instanceof Supplier) {
+			writeObject(((Supplier<?>) data).get(), depth);
+			return;
+		}
+		if(data instanceof Optional) {
+			writeObject(((Optional<?>) data).orElse(null), depth);
+			return;
+		}
+		if(data instanceof OptionalInt) {
+			OptionalInt opt = (OptionalInt) data;
+			writeObject(opt.isPresent() ? opt.getAsInt() : null, depth);
+			return;
+		}
+		if(data instanceof OptionalLong) {
+			OptionalLong opt = (OptionalLong) data;
+			writeObject(opt.isPresent() ? opt.getAsLong() : null, depth);
+			return;
+		}
+		if(data instanceof OptionalDouble) {
+			OptionalDouble opt = (OptionalDouble) data;
+			writeObject(opt.isPresent() ? opt.getAsDouble() : null, depth);
+			return;
+		}
+		try {
+			writeClass(data, depth);
+		} catch (IllegalArgumentException | IllegalAccessException e) {
+			throw new XJSONException("cannot format data " + data);
+		}
+	}
+
+	void writeItems(Object[] items, int depth) throws XJSONException {
+		writeTag(ARRAY);
+		writeVarint(items.length);
+		for(Object o: items) {
+			writeObject(o, depth + 1);
+		}
+	}
+
+	void writeClass(Object data, int depth)
+			throws IllegalArgumentException, IllegalAccessException {
+		JSONEncodePlan plan = JSONEncodePlan.of(data.getClass(), null, false);
+		Field[] fields = plan.fields;
+		writeTag(OBJECT);
+		writeVarint(fields.length);
+		for(int i = 0; i < fields.length; i++) {
+			Field f = fields[i];
+			writeKey(f.getName());
+			switch(plan.kinds[i]) {
+			case JSONEncodePlan.INT:
+				writeLong(f.getInt(data));
+				break;
+			case JSONEncodePlan.LONG:
+				writeLong(f.getLong(data));
+				break;
+			case JSONEncodePlan.DOUBLE:
+				writeDouble(f.getDouble(data));
+				break;
+			case JSONEncodePlan.BOOLEAN:
+				writeTag(f.getBoolean(data) ? TRUE : FALSE);
+				break;
+			default:
+				writeObject(f.get(data), depth + 1);
+			}
+		}
+	}
+
+	void writeText(String json, int depth) throws XJSONException {
+		JSONTreeParser parser = new JSONTreeParser(json.toCharArray());
+		parser.exactNumbers = true;
+		parser.readDocumentValue();
+		writeSlot(parser.valStack[0], parser.primStack, 0, depth);
+	}
+
+	/**
+	 * value as the compact parser leaves it on its stacks
+	 * */
+	void writeSlot(Object v, long[] prims, int i, int depth) throws XJSONException {
+		if(v == XJSONObject.INT_SLOT || v == XJSONObject.LONG_SLOT) {
+			writeLong(prims[i]);
+		} else if(v == XJSONObject.DOUBLE_SLOT) {
+			writeDouble(Double.longBitsToDouble(prims[i]));
+		} else {
+			writeObject(v, depth);
+		}
+	}
+}
@@ -0,0 +1,84 @@
+package json.xjson;
+
+/**
+ * encodes the chars flushed by a JSONWriter to utf-8 in a fixed
+ * chunk and hands each full chunk to writeBytes, surrogate pairs
+ * split over two flushes are kept until the low half arrives
+ * */
+abstract class JSONByteSink implements JSONWriter.Sink {
+
+	static final int DEFAULT_CHUNK = 8192;
+
+	final byte[] bytes;
+	int pos;
+	char high;
+
+	JSONByteSink() {
+		this(DEFAULT_CHUNK);
+	}
+
+	JSONByteSink(int chunk) {
+		bytes = new byte[chunk];
+	}
+
+	abstract void writeBytes(byte[] b, int offset, int len);
+
+	@Override
+	public void write(char[] chars, int offset, int len) {
+		int end = offset + len;
+		byte[] b = bytes;
+		int limit = b.length - 4;
+		for(int i = offset; i < end; i++) {
+			if(pos > limit) {
+				writeBytes(b, 0, pos);
+				pos = 0;
+			}
+			char c = chars[i];
+			if(high != 0) {
+				if(Character.isLowSurrogate(c)) {
+					int cp = Character.toCodePoint(high, c);
+					high = 0;
+					b[pos++] = (byte) (0xf0 | (cp >> 18));
+					b[pos++] = (byte) (0x80 | ((cp >> 12) & 0x3f));
+					b[pos++] = (byte) (0x80 | ((cp >> 6) & 0x3f));
+					b[pos++] = (byte) (0x80 | (cp & 0x3f));
+					continue;
+				}
+				high = 0;
+				b[pos++] = '?';
+			}
+			if(c < 0x80) {
+				b[pos++] = (byte) c;
+			} else if(c < 0x800) {
+				b[pos++] = (byte) (0xc0 | (c >> 6));
+				b[pos++] = (byte) (0x80 | (c & 0x3f));
+			} else if(Character.isHighSurrogate(c)) {
+				high = c;
+			} else if(Character.isLowSurrogate(c)) {
+				b[pos++] = '?';
+			} else {
+				b[pos++] = (byte) (0xe0 | (c >> 12));
+				b[pos++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+				b[pos++] = (byte) (0x80 | (c & 0x3f));
+			}
+		}
+	}
+
+	/**
+	 * writes out whatever is left in the chunk
+	 * */
+	void finish() {
+		if(high != 0) {
+			high = 0;
+			if(pos > bytes.length - 4) {
+				writeBytes(bytes, 0, pos);
+				pos = 0;
+			}
+			bytes[pos++] = '?';
+		}
+		if(pos > 0) {
+			writeBytes(bytes, 0, pos);
+			pos = 0;
+		}
+	}
+}
@@ -0,0 +1,161 @@
+package json.xjson;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * registered codecs, split by direction so a class may have only a
+ * writer or only a reader. the old string based serializers and
+ * deserializers are adapted onto XJSONCodec here, and the boxed
+ * primitives get typed readers so numbers are never reparsed from text.
+ * */
+class JSONCodecs {
+
+	static final ConcurrentHashMap<Class<?>, XJSONCodec<?>> WRITERS = 
+			new ConcurrentHashMap<>();
+	static final ConcurrentHashMap<Class<?>, XJSONCodec<?>> READERS = 
+			new ConcurrentHashMap<>();
+	
+	static {
+		READERS.put(Boolean.class, scalar(JSONCodecs::booleanValue));
+		READERS.put(Byte.class, scalar(JSONCodecs::byteValue));
+		READERS.put(Character.class, scalar(JSONCodecs::charValue));
+		READERS.put(Short.class, scalar(JSONCodecs::shortValue));
+		READERS.put(Integer.class, scalar(XJSONReader::intValue));
+		READERS.put(Long.class, scalar(XJSONReader::longValue));
+		READERS.put(Float.class, scalar(JSONCodecs::floatValue));
+		READERS.put(Double.class, scalar(XJSONReader::doubleValue));
+	}
+	
+	/**
+	 * the conversions of the scalars not already on XJSONReader, also
+	 * the typed argument filters of creators
+	 * */
+	static boolean booleanValue(Object v) throws XJSONException {
+		if(v instanceof Boolean) {
+			return (Boolean) v;
+		}
+		return Boolean.parseBoolean(text(v));
+	}
+	
+	static byte byteValue(Object v) throws XJSONException {
+		return (byte) range(XJSONReader.intValue(v), Byte.MIN_VALUE, Byte.MAX_VALUE);
+	}
+	
+	static char charValue(Object v) throws XJSONException {
+		if(v instanceof Character) {
+			return (Character) v;
+		}
+		String s = text(v);
+		if(s.length() != 1) {
+			throw new XJSONException("unknown Charater value " + s);
+		}
+		return s.charAt(0);
+	}
+	
+	static short shortValue(Object v) throws XJSONException {
+		return (short) range(XJSONReader.intValue(v), Short.MIN_VALUE, Short.MAX_VALUE);
+	}
+	
+	static float floatValue(Object v) throws XJSONException {
+		return (float) XJSONReader.doubleValue(v);
+	}
+	
+	/**
+	 * strings, numbers and booleans as the text nextString gives
+	 * */
+	static String text(Object v) throws XJSONException {
+		if(v instanceof String || v instanceof Number || v instanceof Boolean) {
+			return String.valueOf(v);
+		}
+		throw new XJSONException("can not read string from " + v);
+	}
+	
+	static int range(int v, int min, int max) throws XJSONException {
+		if(v < min || v > max) {
+			throw new XJSONException("number " + v + " out of range [" + min + ", " + max + "]");
+		}
+		return v;
+	}
+	
+	interface Read<T> {
+		T read(XJSONReader in);
+	}
+
+	interface Convert {
+		Object convert(Object v);
+	}
+
+	/**
+	 * reader of a built-in scalar, binding converts the parsed value
+	 * directly instead of stepping an XJSONReader over it
+	 * */
+	static final class Scalar implements XJSONCodec<Object> {
+		final Convert convert;
+
+		Scalar(Convert convert) {
+			this.convert = convert;
+		}
+
+		@Override
+		public void write(XJSONGenerator out, Object value) {
+			out.writeValue(value);
+		}
+
+		@Override
+		public Object read(XJSONReader in) {
+			return convert.convert(in.nextValue());
+		}
+	}
+
+	static Scalar scalar(Convert convert) {
+		return new Scalar(convert);
+	}
+
+	static <T> XJSONCodec<T> reader(Read<T> read) {
+		return new XJSONCodec<T>() {
+			@Override
+			public void write(XJSONGenerator out, T value) {
+				out.writeValue(value);
+			}
+
+			@Override
+			public T read(XJSONReader in) {
+				return read.read(in);
+			}
+		};
+	}
+
+	/**
+	 * the serializer's text becomes a json string
+	 * */
+	static XJSONCodec<Object> adaptSerializer(XJSONSerializer serializer) {
+		return new XJSONCodec<Object>() {
+			@Override
+			public void write(XJSONGenerator out, Object value) {
+				out.writeString(serializer.serialize(value));
+			}
+
+			@Override
+			public Object read(XJSONReader in) {
+				throw new XJSONException("serializer can not read");
+			}
+		};
+	}
+
+	/**
+	 * the deserializer gets the value as text, numbers included
+	 * */
+	static XJSONCodec<Object> adaptDeserializer(XJSONDeserializer deserializer) {
+		return reader(in -> deserializer.deserialize(in.nextString()));
+	}
+
+	@SuppressWarnings("unchecked")
+	static XJSONCodec<Object> writer(Class<?> cls) {
+		return (XJSONCodec<Object>) WRITERS.get(cls);
+	}
+
+	@SuppressWarnings("unchecked")
+	static XJSONCodec<Object> reader(Class<?> cls) {
+		return (XJSONCodec<Object>) READERS.get(cls);
+	}
+}
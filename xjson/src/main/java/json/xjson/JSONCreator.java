@@ -0,0 +1,244 @@
+package json.xjson;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Executable;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Parameter;
+import java.lang.reflect.RecordComponent;
+import java.lang.reflect.Type;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * binding through a constructor or static factory, looked up once per
+ * class and invoked as a single spread MethodHandle, primitive parameters
+ * are converted by typed filters without boxing. also caches the
+ * no arguments constructors used for plain classes and collections.
+ * */
+class JSONCreator {
+
+	static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+	/**
+	 * NONE marks classes without a creator so they are not looked up again
+	 * */
+	static final JSONCreator NONE = new JSONCreator(null, new String[0], new Type[0], new Class<?>[0]);
+
+	static final ConcurrentHashMap<Class<?>, JSONCreator> CREATORS = new ConcurrentHashMap<>();
+	static final ConcurrentHashMap<Class<?>, MethodHandle> CONSTRUCTORS = new ConcurrentHashMap<>();
+
+	/**
+	 * (Object[])Object, the arguments spread over the parameters, a
+	 * primitive parameter takes the parsed value as is
+	 * */
+	final MethodHandle handle;
+	final String[] names;
+	final Type[] types;
+	final Class<?>[] rawTypes;
+	final HashSet<String> nameSet = new HashSet<>();
+
+	JSONCreator(MethodHandle handle, String[] names, Type[] types, Class<?>[] rawTypes) {
+		this.handle = handle;
+		this.names = names;
+		this.types = types;
+		this.rawTypes = rawTypes;
+		for(String n: names) {
+			nameSet.add(n);
+		}
+	}
+
+	/**
+	 * the creator of cls, null when it is bound field by field
+	 * */
+	static JSONCreator of(Class<?> cls) throws XJSONException {
+		JSONCreator c = CREATORS.get(cls);
+		if(c == null) {
+			c = find(cls);
+			CREATORS.putIfAbsent(cls, c);
+		}
+		return c == NONE ? null : c;
+	}
+
+	static JSONCreator find(Class<?> cls) throws XJSONException {
+		try {
+			if(cls.isRecord()) {
+				RecordComponent[] rc = cls.getRecordComponents();
+				String[] names = new String[rc.length];
+				Type[] types = new Type[rc.length];
+				Class<?>[] raw = new Class<?>[rc.length];
+				for(int i = 0; i < rc.length; i++) {
+					names[i] = rc[i].getName();
+					types[i] = rc[i].getGenericType();
+					raw[i] = rc[i].getType();
+				}
+				Constructor<?> ctor = cls.getDeclaredConstructor(raw);
+				ctor.setAccessible(true);
+				return new JSONCreator(spread(LOOKUP.unreflectConstructor(ctor), raw),
+						names, types, raw);
+			}
+			for(Constructor<?> ctor: cls.getDeclaredConstructors()) {
+				if(ctor.isAnnotationPresent(XJSONCreator.class)) {
+					ctor.setAccessible(true);
+					return create(cls, ctor, LOOKUP.unreflectConstructor(ctor));
+				}
+			}
+			for(Method m: cls.getDeclaredMethods()) {
+				if(m.isAnnotationPresent(XJSONCreator.class) && Modifier.isStatic(m.getModifiers()) &&
+						cls.isAssignableFrom(m.getReturnType())) {
+					m.setAccessible(true);
+					return create(cls, m, LOOKUP.unreflect(m));
+				}
+			}
+		} catch(ReflectiveOperationException | RuntimeException e) {
+			throw new XJSONException("can not use the creator of class '" + cls.getName() + "'");
+		}
+		return NONE;
+	}
+
+	static JSONCreator create(Class<?> cls, Executable e, MethodHandle h) 
+			throws XJSONException, ReflectiveOperationException {
+		Parameter[] params = e.getParameters();
+		String[] names = e.getAnnotation(XJSONCreator.class).value();
+		if(names.length == 0) {
+			names = new String[params.length];
+			for(int i = 0; i < params.length; i++) {
+				if(!params[i].isNamePresent()) {
+					throw new XJSONException("creator of class '" + cls.getName() +
+							"' needs member names or -parameters");
+				}
+				names[i] = params[i].getName();
+			}
+		}
+		if(names.length != params.length) {
+			throw new XJSONException("creator of class '" + cls.getName() +
+					"' names " + names.length + " of " + params.length + " parameters");
+		}
+		return new JSONCreator(spread(h, e.getParameterTypes()), names,
+				e.getGenericParameterTypes(), e.getParameterTypes());
+	}
+
+	static MethodHandle spread(MethodHandle h, Class<?>[] raw) throws ReflectiveOperationException {
+		MethodHandle[] filters = new MethodHandle[raw.length];
+		for(int i = 0; i < raw.length; i++) {
+			if(raw[i].isPrimitive()) {
+				filters[i] = filter(raw[i]);
+			}
+		}
+		h = MethodHandles.filterArguments(h, 0, filters);
+		return h.asType(h.type().generic()).asSpreader(Object[].class, raw.length);
+	}
+
+	/**
+	 * (Object)primitive, the same conversion as the boxed reader
+	 * */
+	static MethodHandle filter(Class<?> cls) throws ReflectiveOperationException {
+		MethodType type = MethodType.methodType(cls, Object.class);
+		String name = cls.getName() + "Value";
+		if(cls == int.class || cls == long.class || cls == double.class) {
+			return LOOKUP.findStatic(XJSONReader.class, name, type);
+		}
+		return LOOKUP.findStatic(JSONCodecs.class, name, type);
+	}
+
+	/**
+	 * collects the arguments in parameter order, absent primitives get
+	 * their zero value, then invokes the creator once. primitives without
+	 * a codec are left to the typed filters.
+	 * */
+	Object create(Class<?> cls, LinkedHashMap<String, Object> val) throws XJSONException {
+		Object[] args = new Object[names.length];
+		for(int i = 0; i < names.length; i++) {
+			Object v = val.get(names[i]);
+			if(v == null) {
+				if(JSONReflect.strictClassMode) {
+					throw new XJSONException(
+							XJSONException.getErrorMsg(names[i], cls, true));
+				}
+				args[i] = zero(rawTypes[i]);
+				continue;
+			}
+			if(rawTypes[i].isPrimitive() && JSONCodecs.reader(rawTypes[i]) == null) {
+				args[i] = v;
+				continue;
+			}
+			try {
+				args[i] = JSONReflect.fromJavaType(types[i], v);
+			} catch(RuntimeException e) {
+				throw new XJSONException("can not set " + names[i] + " of class '" +
+						cls.getName() + "' from " + v);
+			}
+		}
+		if(JSONReflect.strictJsonMode) {
+			for(String k: val.keySet()) {
+				if(!nameSet.contains(k)) {
+					throw new XJSONException(XJSONException.getErrorMsg(k, cls, false));
+				}
+			}
+		}
+		try {
+			return (Object) handle.invokeExact(args);
+		} catch(XJSONException e) {
+			throw e;
+		} catch(Throwable e) {
+			throw new XJSONException("can not construct class '" + cls.getName() + "': " + e);
+		}
+	}
+
+	static Object zero(Class<?> cls) {
+		if(!cls.isPrimitive()) {
+			return null;
+		}
+		if(cls == boolean.class) {
+			return false;
+		}
+		if(cls == char.class) {
+			return (char) 0;
+		}
+		if(cls == long.class) {
+			return 0L;
+		}
+		if(cls == float.class) {
+			return 0f;
+		}
+		if(cls == double.class) {
+			return 0d;
+		}
+		if(cls == byte.class) {
+			return (byte) 0;
+		}
+		if(cls == short.class) {
+			return (short) 0;
+		}
+		return 0;
+	}
+
+	/**
+	 * new instance through the cached no arguments constructor, which
+	 * may be private
+	 * */
+	static Object construct(Class<?> cls) throws XJSONException {
+		MethodHandle h = CONSTRUCTORS.get(cls);
+		if(h == null) {
+			try {
+				Constructor<?> ctor = cls.getDeclaredConstructor();
+				ctor.setAccessible(true);
+				h = LOOKUP.unreflectConstructor(ctor).asType(MethodType.methodType(Object.class));
+			} catch(ReflectiveOperationException | RuntimeException e) {
+				throw new XJSONException(
+						"no arguments constructor is required with class '" 
+						+ cls.getName() + "'");
+			}
+			CONSTRUCTORS.putIfAbsent(cls, h);
+		}
+		try {
+			return (Object) h.invokeExact();
+		} catch(Throwable e) {
+			throw new XJSONException("can not construct class '" + cls.getName() + "'");
+		}
+	}
+}
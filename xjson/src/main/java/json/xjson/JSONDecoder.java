@@ -445,6 +445,179 @@ class JSONDecoder {
 		return sb.toString();
 	}
 
+	static final int MAX_DEPTH = 512;
+
+	/**
+	 * checks that chars holds exactly one json value of any kind,
+	 * surrounded by nothing but whitespace
+	 * */
+	static void validate(char[] chars) throws XJSONException {
+		int i = skipValue(chars, skipSpace(chars, 0), 0);
+		i = skipSpace(chars, i);
+		if(i != chars.length) {
+			throw new XJSONException(XJSONException.getErrorMsg(chars, i));
+		}
+	}
+
+	static int skipSpace(char[] chars, int i) {
+		while(i < chars.length && (SPACE == chars[i] || ENTER == chars[i] || 
+				LINEB == chars[i] || TAB == chars[i])) {
+			++i;
+		}
+		return i;
+	}
+
+	static int skipValue(char[] chars, int i, int depth) throws XJSONException {
+		if(i >= chars.length || depth > MAX_DEPTH) {
+			throw new XJSONException(XJSONException.getErrorMsg(chars, 
+					Math.max(0, Math.min(i, chars.length - 1))));
+		}
+		char c = chars[i];
+		if(B_BRACES_L == c) {
+			i = skipSpace(chars, i + 1);
+			if(i < chars.length && B_BRACES_R == chars[i]) {
+				return i + 1;
+			}
+			while(true) {
+				if(i >= chars.length || QUOTE != chars[i]) {
+					throw new XJSONException(XJSONException.getErrorMsg(chars, 
+							Math.min(i, chars.length - 1)));
+				}
+				i = skipSpace(chars, skipString(chars, i));
+				if(i >= chars.length || COLON != chars[i]) {
+					throw new XJSONException(XJSONException.getErrorMsg(chars, 
+							Math.min(i, chars.length - 1)));
+				}
+				i = skipSpace(chars, skipValue(chars, skipSpace(chars, i + 1), depth + 1));
+				if(i < chars.length && COMMA == chars[i]) {
+					i = skipSpace(chars, i + 1);
+					continue;
+				}
+				if(i < chars.length && B_BRACES_R == chars[i]) {
+					return i + 1;
+				}
+				throw new XJSONException(XJSONException.getErrorMsg(chars, 
+						Math.min(i, chars.length - 1)));
+			}
+		}
+		if(BRACES_L == c) {
+			i = skipSpace(chars, i + 1);
+			if(i < chars.length && BRACES_R == chars[i]) {
+				return i + 1;
+			}
+			while(true) {
+				i = skipSpace(chars, skipValue(chars, i, depth + 1));
+				if(i < chars.length && COMMA == chars[i]) {
+					i = skipSpace(chars, i + 1);
+					continue;
+				}
+				if(i < chars.length && BRACES_R == chars[i]) {
+					return i + 1;
+				}
+				throw new XJSONException(XJSONException.getErrorMsg(chars, 
+						Math.min(i, chars.length - 1)));
+			}
+		}
+		if(QUOTE == c) {
+			return skipString(chars, i);
+		}
+		if(NULL[0] == c) {
+			return skipLiteral(chars, i, NULL);
+		}
+		if(TRUE[0] == c) {
+			return skipLiteral(chars, i, TRUE);
+		}
+		if(FALSE[0] == c) {
+			return skipLiteral(chars, i, FALSE);
+		}
+		return skipNumber(chars, i);
+	}
+
+	static int skipLiteral(char[] chars, int i, char[] literal) throws XJSONException {
+		for(int j = 0; j < literal.length; j++) {
+			if(i + j >= chars.length || literal[j] != chars[i + j]) {
+				throw new XJSONException(XJSONException.getErrorMsg(chars, i));
+			}
+		}
+		return i + literal.length;
+	}
+
+	static int skipString(char[] chars, int i) throws XJSONException {
+		int start = i++;
+		while(i < chars.length) {
+			char c = chars[i];
+			if(QUOTE == c) {
+				return i + 1;
+			}
+			if(c < SPACE) {
+				break;
+			}
+			if(BACKSLASH == c) {
+				if(i + 1 >= chars.length) {
+					break;
+				}
+				char e = chars[i + 1];
+				if(e == 'u') {
+					if(i + 5 >= chars.length) {
+						break;
+					}
+					for(int j = i + 2; j < i + 6; j++) {
+						if(Character.digit(chars[j], 16) < 0) {
+							throw new XJSONException(XJSONException.getErrorMsg(chars, start));
+						}
+					}
+					i += 6;
+					continue;
+				}
+				if(e != QUOTE && e != BACKSLASH && e != '/' && e != 'b' && 
+						e != 'f' && e != 'n' && e != 'r' && e != 't') {
+					break;
+				}
+				i += 2;
+				continue;
+			}
+			++i;
+		}
+		throw new XJSONException(XJSONException.getErrorMsg(chars, start));
+	}
+
+	static int skipNumber(char[] chars, int i) throws XJSONException {
+		int start = i;
+		if(i < chars.length && '-' == chars[i]) {
+			++i;
+		}
+		int digits = i;
+		while(i < chars.length && '0' <= chars[i] && chars[i] <= '9') {
+			++i;
+		}
+		if(i == digits || (chars[digits] == '0' && i - digits > 1)) {
+			throw new XJSONException(XJSONException.getErrorMsg(chars, start));
+		}
+		if(i < chars.length && DOT == chars[i]) {
+			digits = ++i;
+			while(i < chars.length && '0' <= chars[i] && chars[i] <= '9') {
+				++i;
+			}
+			if(i == digits) {
+				throw new XJSONException(XJSONException.getErrorMsg(chars, start));
+			}
+		}
+		if(i < chars.length && ('e' == chars[i] || 'E' == chars[i])) {
+			++i;
+			if(i < chars.length && ('+' == chars[i] || '-' == chars[i])) {
+				++i;
+			}
+			digits = i;
+			while(i < chars.length && '0' <= chars[i] && chars[i] <= '9') {
+				++i;
+			}
+			if(i == digits) {
+				throw new XJSONException(XJSONException.getErrorMsg(chars, start));
+			}
+		}
+		return i;
+	}
+
 	static LinkedHashMap<String, Object> parseToMap(String json) 
 			throws XJSONException {
 		LinkedHashMap<String, Object> ret = new LinkedHashMap<>();
@@ -0,0 +1,157 @@
+package json.xjson;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * splits a top level json array read from a Reader into the texts of
+ * its elements, without holding more than one element in memory.
+ * only brackets, quotes and commas are looked at here, the element text
+ * itself is checked by the parser it is handed to.
+ * */
+class JSONElementReader {
+
+	static final int BUFFER_SIZE = 8192;
+
+	final Reader in;
+	final char[] buf = new char[BUFFER_SIZE];
+	final StringBuilder element = new StringBuilder();
+	int pos;
+	int limit;
+	boolean started;
+	boolean ended;
+
+	JSONElementReader(Reader in) {
+		this.in = in;
+	}
+
+	/**
+	 * -1 at the end of input
+	 * */
+	int read() throws IOException {
+		if(pos == limit) {
+			limit = in.read(buf, 0, buf.length);
+			pos = 0;
+			if(limit <= 0) {
+				limit = 0;
+				return -1;
+			}
+		}
+		return buf[pos++];
+	}
+
+	int readSignificant() throws IOException {
+		int c;
+		do {
+			c = read();
+		} while(c == ' ' || c == '\n' || c == '\r' || c == '\t');
+		return c;
+	}
+
+	/**
+	 * text of the next element, null after the closing bracket
+	 * */
+	String next() throws IOException {
+		if(ended) {
+			return null;
+		}
+		if(!started) {
+			started = true;
+			if(readSignificant() != '[') {
+				throw new XJSONException("input json is not an array.");
+			}
+			if(expect(readSignificant()) == ']') {
+				return end();
+			}
+			pos--;
+		}
+		element.setLength(0);
+		int depth = 0;
+		boolean str = false;
+		for(;;) {
+			int start = pos;
+			while(pos < limit) {
+				char c = buf[pos];
+				if(str) {
+					if(c == '\\') {
+						if(pos + 1 == limit) {
+							break;
+						}
+						pos++;
+					} else if(c == '"') {
+						str = false;
+					}
+				} else if(c == '"') {
+					str = true;
+				} else if(c == '[' || c == '{') {
+					depth++;
+				} else if(c == ']' || c == '}') {
+					if(depth == 0) {
+						element.append(buf, start, pos - start);
+						pos++;
+						if(c != ']') {
+							throw new XJSONException("invalid json array near '" + element + "'.");
+						}
+						ended = true;
+						return text();
+					}
+					depth--;
+				} else if(c == ',' && depth == 0) {
+					element.append(buf, start, pos - start);
+					pos++;
+					return text();
+				}
+				pos++;
+			}
+			element.append(buf, start, pos - start);
+			if(pos < limit) {
+				// an escape split by the buffer end, keep both chars together
+				element.append(buf[pos++]);
+				element.append((char) expect(read()));
+				continue;
+			}
+			expect(read());
+			pos--;
+		}
+	}
+
+	int expect(int c) {
+		if(c < 0) {
+			throw new XJSONException("json array ended before its closing bracket.");
+		}
+		return c;
+	}
+
+	String end() {
+		ended = true;
+		return null;
+	}
+
+	String text() {
+		int b = 0, e = element.length();
+		while(b < e && element.charAt(b) <= ' ') {
+			b++;
+		}
+		while(e > b && element.charAt(e - 1) <= ' ') {
+			e--;
+		}
+		if(b == e) {
+			throw new XJSONException("empty element in json array.");
+		}
+		return element.substring(b, e);
+	}
+
+	/**
+	 * element text to the tree parse or parseList would build
+	 * */
+	static Object decode(String text) {
+		char c = text.charAt(0);
+		if(c == '{') {
+			return JSONDecoder.parseToMap(text);
+		}
+		if(c == '[') {
+			return JSONDecoder.parseToList(text);
+		}
+		return JSONDecoder.parseToList("[" + text + "]").getFirst();
+	}
+}
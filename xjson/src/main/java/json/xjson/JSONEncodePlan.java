@@ -0,0 +1,185 @@
+package json.xjson;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.OptionalInt;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * fields a class is encoded with, worked out once per class, view and
+ * key order. the member keys are kept as ready chars and int, long,
+ * double and boolean fields are read without boxing, so skipping
+ * defaults needs no reflection beyond the read itself.
+ * */
+class JSONEncodePlan {
+
+	static final byte OBJECT = 0;
+	static final byte INT = 1;
+	static final byte LONG = 2;
+	static final byte DOUBLE = 3;
+	static final byte BOOLEAN = 4;
+
+	/**
+	 * include or exclude sets of one named view, classes without a set
+	 * are encoded with all their fields
+	 * */
+	static final class View {
+		final String name;
+		final ConcurrentHashMap<Class<?>, Set<String>> includes = new ConcurrentHashMap<>();
+		final ConcurrentHashMap<Class<?>, Set<String>> excludes = new ConcurrentHashMap<>();
+		final ConcurrentHashMap<Class<?>, JSONEncodePlan> plans = new ConcurrentHashMap<>();
+		final ConcurrentHashMap<Class<?>, JSONEncodePlan> sortedPlans = new ConcurrentHashMap<>();
+
+		View(String name) {
+			this.name = name;
+		}
+
+		boolean keeps(Class<?> cls, String field) {
+			Set<String> in = includes.get(cls);
+			if(in != null) {
+				return in.contains(field);
+			}
+			Set<String> ex = excludes.get(cls);
+			return ex == null || !ex.contains(field);
+		}
+	}
+
+	static final ConcurrentHashMap<Class<?>, JSONEncodePlan> PLANS = new ConcurrentHashMap<>();
+	static final ConcurrentHashMap<Class<?>, JSONEncodePlan> SORTED_PLANS = new ConcurrentHashMap<>();
+	static final ConcurrentHashMap<String, View> VIEWS = new ConcurrentHashMap<>();
+
+	final Field[] fields;
+	final byte[] kinds;
+	final char[][] keys;
+
+	JSONEncodePlan(Field[] fields) {
+		this.fields = fields;
+		this.kinds = new byte[fields.length];
+		this.keys = new char[fields.length][];
+		for(int i = 0; i < fields.length; i++) {
+			Class<?> t = fields[i].getType();
+			kinds[i] = t == int.class ? INT : t == long.class ? LONG : 
+				t == double.class ? DOUBLE : t == boolean.class ? BOOLEAN : OBJECT;
+			// field names are identifiers, nothing in them needs escaping
+			keys[i] = ("\"" + fields[i].getName() + "\":").toCharArray();
+		}
+	}
+
+	static JSONEncodePlan of(Class<?> cls, View view, boolean sorted) {
+		ConcurrentHashMap<Class<?>, JSONEncodePlan> plans = view == null ? 
+				(sorted ? SORTED_PLANS : PLANS) : (sorted ? view.sortedPlans : view.plans);
+		JSONEncodePlan plan = plans.get(cls);
+		if(plan != null) {
+			return plan;
+		}
+		ArrayList<Field> list = new ArrayList<>();
+		for(Field f: cls.getDeclaredFields()) {
+			if(f.getName().startsWith(JSONEncoder.INNER_CLASS_FIELD)) {
+				continue;
+			}
+			if(Modifier.isStatic(f.getModifiers())) {
+				continue;
+			}
+			if(Modifier.isTransient(f.getModifiers())) {
+				continue;
+			}
+			if(view != null && !view.keeps(cls, f.getName())) {
+				continue;
+			}
+			f.setAccessible(true);
+			list.add(f);
+		}
+		Field[] fields = list.toArray(new Field[0]);
+		if(sorted) {
+			Arrays.sort(fields, (Field a, Field b) -> a.getName().compareTo(b.getName()));
+		}
+		plan = new JSONEncodePlan(fields);
+		JSONEncodePlan prev = plans.putIfAbsent(cls, plan);
+		return prev != null ? prev : plan;
+	}
+
+	static View view(String name) {
+		View view = VIEWS.get(name);
+		if(view == null) {
+			throw new XJSONException("unknown view '" + name + "'.");
+		}
+		return view;
+	}
+
+	/**
+	 * include true keeps only fields, otherwise fields are left out
+	 * */
+	static void define(String name, Class<?> cls, boolean include, String[] fields) {
+		View view = VIEWS.computeIfAbsent(name, View::new);
+		Set<String> set = Set.of(fields);
+		if(include) {
+			view.excludes.remove(cls);
+			view.includes.put(cls, set);
+		} else {
+			view.includes.remove(cls);
+			view.excludes.put(cls, set);
+		}
+		view.plans.remove(cls);
+		view.sortedPlans.remove(cls);
+	}
+
+	/**
+	 * whether an object field value is left out under omit
+	 * */
+	static boolean omits(Object v, int omit) {
+		if(v == null) {
+			return true;
+		}
+		if(omit >= XJSONOmit.EMPTIES.ordinal()) {
+			if(v instanceof CharSequence) {
+				if(((CharSequence) v).length() == 0) {
+					return true;
+				}
+			} else if(v instanceof Collection) {
+				if(((Collection<?>) v).isEmpty()) {
+					return true;
+				}
+			} else if(v instanceof Map) {
+				if(((Map<?, ?>) v).isEmpty()) {
+					return true;
+				}
+			} else if(v.getClass().isArray()) {
+				if(Array.getLength(v) == 0) {
+					return true;
+				}
+			} else if(v instanceof Optional) {
+				return !((Optional<?>) v).isPresent();
+			} else if(v instanceof OptionalInt) {
+				return !((OptionalInt) v).isPresent();
+			} else if(v instanceof OptionalLong) {
+				return !((OptionalLong) v).isPresent();
+			} else if(v instanceof OptionalDouble) {
+				return !((OptionalDouble) v).isPresent();
+			}
+		}
+		if(omit >= XJSONOmit.DEFAULTS.ordinal()) {
+			if(v instanceof Boolean) {
+				return !(Boolean) v;
+			}
+			if(v instanceof Character) {
+				return (Character) v == 0;
+			}
+			if(v instanceof Integer || v instanceof Long || v instanceof Short || v instanceof Byte) {
+				return ((Number) v).longValue() == 0;
+			}
+			if(v instanceof Double || v instanceof Float) {
+				return ((Number) v).doubleValue() == 0;
+			}
+		}
+		return false;
+	}
+}
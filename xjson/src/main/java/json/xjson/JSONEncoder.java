@@ -0,0 +1,1106 @@
+package json.xjson;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.security.MessageDigest;
+import java.text.DecimalFormat;
+import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.OptionalInt;
+import java.util.OptionalLong;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+import java.util.stream.BaseStream;
+
+class JSONEncoder {
+
+	static final String DATE_PATTERN = "yyyy-MM-dd";
+	static final String TIME_PATTERN = "yyyy-MM-dd HH:mm:ss";
+	
+	static final char BRACES_L = '[';
+	static final char BRACES_R = ']';
+	static final char B_BRACES_L = '{';
+	static final char B_BRACES_R = '}';
+	static final char COMMA = ',';
+	static final char COLON = ':';
+	static final char DOT = '.';
+	static final char SPACE = ' ';
+	static final char ENTER = '\n';
+	static final char QUOTE = '"';
+	static final char SINGLE_QUOTE = '\'';
+	static final char BACKSLASH = '\\';
+	static final String TAB = "  ";
+
+	static final String BOOL_TYPE = "boolean";
+	static final String BYTE_TYPE = "byte";
+	static final String CHAR_TYPE = "char";
+	static final String SHORT_TYPE = "short";
+	static final String INT_TYPE = "int";
+	static final String LONG_TYPE = "long";
+	static final String FLOAT_TYPE = "float";
+	static final String DOUBLE_TYPE = "double";
+	
+	static final String DECIMAL_PATTERN = "#.00";
+	/**
+	 * DecimalFormat is not thread safe, one instance per thread
+	 * instead of one per value
+	 * */
+	static final ThreadLocal<DecimalFormat> DECIMAL_FORMAT = 
+			ThreadLocal.withInitial(() -> new DecimalFormat(DECIMAL_PATTERN));
+	/**
+	 * inner class to super
+	 * */
+	static final String INNER_CLASS_FIELD = "this$";
+
+	/**
+	 * learned output length per top level class
+	 * */
+	static final ConcurrentHashMap<Class<?>, Integer> SIZE_HINTS = 
+			new ConcurrentHashMap<>();
+	static final int MAX_SIZE_HINTS = 4096;
+
+	static final char[] INDENT = new char[128];
+	static {
+		Arrays.fill(INDENT, SPACE);
+	}
+
+	static final Comparator<Object> ENTRY_KEY_ORDER = (Object a, Object b) -> 
+			compareKeys(((Map.Entry<?, ?>) a).getKey(), ((Map.Entry<?, ?>) b).getKey());
+
+	static final char[] HEX = "0123456789abcdef".toCharArray();
+
+	static boolean BEAUTIFY = true;
+	static boolean SORT_KEYS = false;
+	static XJSONOmit OMIT = XJSONOmit.NONE;
+	
+	static void formatObject(JSONWriter out, Object data, int tabCount, boolean isVal) {
+		if(data == null) {
+			out.append("null");
+			return;
+		}
+		if(out.canonical) {
+			isVal = true;
+		}
+		if(data instanceof XJSONRaw) {
+			out.append(out.canonical ? canonicalRaw((XJSONRaw) data) : ((XJSONRaw) data).json);
+			return;
+		}
+		if(data.getClass().isPrimitive()) {
+			formatPrimitive(out, data);
+			return;
+		}
+		if(!JSONCodecs.WRITERS.isEmpty()) {
+			XJSONCodec<Object> codec = JSONCodecs.writer(data.getClass());
+			if(codec != null) {
+				XJSONGenerator gen = new XJSONGenerator(out, tabCount);
+				codec.write(gen, data);
+				gen.finish();
+				return;
+			}
+		}
+		if(data instanceof Boolean) {
+			out.append((Boolean) data?"true":"false");
+			return;
+		}
+        if(data instanceof String) {
+        	if(isVal) {
+        		out.append(QUOTE);
+        		formatString(out, (String) data);
+        		out.append(QUOTE);
+        		return;
+        	}
+        	formatString(out, (String) data);
+            return;
+        }
+        if(data instanceof XJSONString) {
+        	formatSlice(out, (XJSONString) data);
+        	return;
+        }
+        if(data instanceof Byte) {
+            out.writeInt((Byte) data);
+            return;
+        }	
+        if(data instanceof Character) {
+        	if(out.canonical) {
+        		out.append(QUOTE);
+        		formatString(out, String.valueOf((char) (Character) data));
+        		out.append(QUOTE);
+        		return;
+        	}
+            out.append(SINGLE_QUOTE).append((Character) data).append(SINGLE_QUOTE);
+            return;
+        }
+        if(data instanceof Short) {
+            out.writeInt((Short) data);
+            return;
+        }
+        if(data instanceof Integer) {
+            out.writeInt((Integer) data);
+            return;
+        }
+        if(data instanceof Long) {
+            out.writeLong((Long) data);
+            return;
+        }
+        if(data instanceof Float) {
+            out.writeFloat((Float) data);
+            return;
+        }
+        if(data instanceof Double) {
+            out.writeDouble((Double) data);
+            return;
+        }
+        if(data instanceof BigInteger) {
+            out.writeBigInteger((BigInteger) data);
+            return;
+        }
+        if(data instanceof BigDecimal) {
+            out.writeBigDecimal((BigDecimal) data);
+            return;
+        }
+        if(data instanceof Number) {
+        	if(out.canonical) {
+        		out.writeDouble(((Number) data).doubleValue());
+        		return;
+        	}
+            out.append(DECIMAL_FORMAT.get().format(data));
+            return;
+        }
+        String date = dateString(data);
+        if(date != null) {
+        	formatDate(out, date, isVal);
+        	return;
+        }
+        if(JSONValueCache.enabled && !out.beautify && out.view == null && out.omit == 0) {
+        	AtomicReferenceArray<char[]> slots = JSONValueCache.lookup(data);
+        	if(slots != null) {
+        		formatCached(out, data, slots);
+        		return;
+        	}
+        }
+        formatContainer(out, data, tabCount, isVal);
+	}
+
+	/**
+	 * the tree parse(stringify(data)) would give, built without the text.
+	 * leaves the binder accepts as they are, like dates and big numbers,
+	 * are kept instead of going through their text form
+	 * */
+	@SuppressWarnings("unchecked")
+	static Object toTree(Object data, int depth) {
+		if(depth > JSONTreeParser.MAX_DEPTH) {
+			throw new XJSONException("data nested deeper than " + JSONTreeParser.MAX_DEPTH);
+		}
+		if(data == null || data instanceof String || data instanceof Boolean ||
+				data instanceof Character || data instanceof Integer || data instanceof Long ||
+				data instanceof Double || data instanceof Float ||
+				data instanceof BigInteger || data instanceof BigDecimal ||
+				data instanceof Date || data instanceof LocalDate ||
+				data instanceof LocalTime || data instanceof LocalDateTime) {
+			return data;
+		}
+		if(!JSONCodecs.WRITERS.isEmpty()) {
+			XJSONCodec<Object> codec = JSONCodecs.writer(data.getClass());
+			if(codec != null) {
+				return textTree(codecText(codec, data), depth);
+			}
+		}
+		if(data instanceof Byte || data instanceof Short) {
+			return ((Number) data).intValue();
+		}
+		if(data instanceof Number) {
+			return ((Number) data).doubleValue();
+		}
+		if(data instanceof XJSONString) {
+			return data.toString();
+		}
+		if(data instanceof XJSONRaw) {
+			return textTree(((XJSONRaw) data).json, depth);
+		}
+		if(data.getClass().isArray()) {
+			LinkedList<Object> ret = new LinkedList<>();
+			int n = Array.getLength(data);
+			for(int i = 0; i < n; i++) {
+				ret.add(toTree(Array.get(data, i), depth + 1));
+			}
+			return ret;
+		}
+		if(data instanceof Map) {
+			LinkedHashMap<String, Object> ret = new LinkedHashMap<>();
+			for(Map.Entry<?, ?> e: ((Map<?, ?>) data).entrySet()) {
+				ret.put(String.valueOf(e.getKey()), toTree(e.getValue(), depth + 1));
+			}
+			return ret;
+		}
+		if(data instanceof Iterable) {
+			LinkedList<Object> ret = new LinkedList<>();
+			for(Object o: (Iterable<Object>) data) {
+				ret.add(toTree(o, depth + 1));
+			}
+			return ret;
+		}
+		Iterator<?> seq = sequence(data);
+		if(seq != null) {
+			LinkedList<Object> ret = new LinkedList<>();
+			while(seq.hasNext()) {
+				ret.add(toTree(seq.next(), depth + 1));
+			}
+			return ret;
+		}
+		if(data instanceof Supplier) {
+			return toTree(((Supplier<?>) data).get(), depth);
+		}
+		if(data instanceof Optional) {
+			return toTree(((Optional<?>) data).orElse(null), depth);
+		}
+		if(data instanceof OptionalInt) {
+			OptionalInt opt = (OptionalInt) data;
+			return opt.isPresent() ? opt.getAsInt() : null;
+		}
+		if(data instanceof OptionalLong) {
+			OptionalLong opt = (OptionalLong) data;
+			return opt.isPresent() ? opt.getAsLong() : null;
+		}
+		if(data instanceof OptionalDouble) {
+			OptionalDouble opt = (OptionalDouble) data;
+			return opt.isPresent() ? opt.getAsDouble() : null;
+		}
+		LinkedHashMap<String, Object> ret = new LinkedHashMap<>();
+		try {
+			for(Field f: JSONReflect.boundFields(data.getClass())) {
+				ret.put(f.getName(), toTree(f.get(data), depth + 1));
+			}
+		} catch (XJSONException e) {
+			throw e;
+		} catch (IllegalAccessException | RuntimeException e) {
+			/**
+			 * fields of jdk classes can not be made accessible
+			 * */
+            throw new XJSONException("cannot format data "+data);
+		}
+		return ret;
+	}
+
+	static Object textTree(String json, int depth) {
+		JSONTreeParser parser = new JSONTreeParser(json.toCharArray());
+		parser.readDocumentValue();
+		return toTree(XJSONObject.box(parser.valStack[0], parser.primStack, 0), depth);
+	}
+
+	static void formatContainer(JSONWriter out, Object data, int tabCount, boolean isVal) {
+		if(tabCount > JSONTreeParser.MAX_DEPTH) {
+			throw new XJSONException("data nested deeper than " + JSONTreeParser.MAX_DEPTH + 
+					", it may refer to itself, see stringify(Object, XJSONLimits)");
+		}
+        if(data.getClass().isArray()) {
+        	formatArray(out, data, tabCount, isVal);
+        	return;
+        }
+        if(data instanceof XJSONArray && ((XJSONArray) data).items == null) {
+        	formatNumberArray(out, (XJSONArray) data, tabCount);
+        	return;
+        }
+        if(data instanceof Collection) {
+        	formatCollection(out, (Collection<?>)data, tabCount, isVal);
+        	return;
+        }
+        if(data instanceof Map) {
+        	formatMap(out, (Map<?, ?>)data, tabCount, isVal);
+        	return;
+        }
+        if(data instanceof Iterable) {
+        	formatIterable(out, (Iterable<?>)data, tabCount, isVal);
+        	return;
+        }
+        if(data instanceof BaseStream) {
+        	try(BaseStream<?, ?> stream = (BaseStream<?, ?>) data) {
+        		formatIterator(out, stream.iterator(), tabCount);
+        	}
+        	return;
+        }
+        Iterator<?> seq = sequence(data);
+        if(seq != null) {
+        	formatIterator(out, seq, tabCount);
+        	return;
+        }
+        if(data instanceof Supplier) {
+        	formatObject(out, ((Supplier<?>) data).get(), tabCount, isVal);
+        	return;
+        }
+        if(data instanceof Optional) {
+        	formatObject(out, ((Optional<?>) data).orElse(null), tabCount, isVal);
+        	return;
+        }
+        if(data instanceof OptionalInt) {
+        	OptionalInt opt = (OptionalInt) data;
+        	if(opt.isPresent()) {
+        		out.writeInt(opt.getAsInt());
+        	} else {
+        		out.append("null");
+        	}
+        	return;
+        }
+        if(data instanceof OptionalLong) {
+        	OptionalLong opt = (OptionalLong) data;
+        	if(opt.isPresent()) {
+        		out.writeLong(opt.getAsLong());
+        	} else {
+        		out.append("null");
+        	}
+        	return;
+        }
+        if(data instanceof OptionalDouble) {
+        	OptionalDouble opt = (OptionalDouble) data;
+        	if(opt.isPresent()) {
+        		out.writeDouble(opt.getAsDouble());
+        	} else {
+        		out.append("null");
+        	}
+        	return;
+        }
+        try {
+			formatClass(out, data, tabCount, isVal);
+		} catch (IllegalArgumentException | IllegalAccessException e) {
+            throw new XJSONException("cannot format data "+data);
+		}
+	}
+
+	/**
+	 * elements of a one shot sequence, an Iterator, a Stream or a
+	 * Spliterator, null for any other data
+	 * */
+	static Iterator<?> sequence(Object data) {
+		if(data instanceof Iterator) {
+			return (Iterator<?>) data;
+		}
+		if(data instanceof BaseStream) {
+			return ((BaseStream<?, ?>) data).iterator();
+		}
+		if(data instanceof Spliterator) {
+			return Spliterators.iterator((Spliterator<?>) data);
+		}
+		return null;
+	}
+
+	/**
+	 * appends the cached output of data, encoding it once on a miss
+	 * */
+	static void formatCached(JSONWriter out, Object data, AtomicReferenceArray<char[]> slots) {
+		int mode = JSONValueCache.mode(out);
+		char[] cached = slots.get(mode);
+		if(cached == null) {
+			JSONWriter tmp = JSONWriter.lease(JSONWriter.DEFAULT_CAPACITY);
+			tmp.beautify = false;
+			tmp.sortKeys = out.sortKeys;
+			tmp.canonical = out.canonical;
+			tmp.view = null;
+			tmp.omit = 0;
+			try {
+				formatContainer(tmp, data, 0, true);
+				cached = Arrays.copyOf(tmp.buf, tmp.count);
+			} finally {
+				tmp.release();
+			}
+			slots.set(mode, cached);
+		}
+		out.append(cached, 0, cached.length);
+	}
+
+	/**
+	 * a parsed slice is already escaped json string content and is copied
+	 * as it is, canonical output decodes it to escape the rfc 8785 way.
+	 * a slice is always a string value so it is quoted wherever it sits
+	 * */
+	static void formatSlice(JSONWriter out, XJSONString data) {
+		out.append(QUOTE);
+		if(out.canonical) {
+			formatString(out, data.toString());
+		} else {
+			out.append(data.source, data.offset, data.len);
+		}
+		out.append(QUOTE);
+	}
+
+	/**
+	 * text of the date and time types, null for anything else
+	 * */
+	static String dateString(Object data) {
+        if(data instanceof Date) {
+            SimpleDateFormat sdf = new SimpleDateFormat(DATE_PATTERN);
+            try {
+            	return sdf.format((Date)data);
+            } catch(Exception ignored) {}
+            throw new XJSONException("cannot format date "+data);
+        }
+        if(data instanceof LocalDate) {
+            DateTimeFormatter dtf = DateTimeFormatter.ofPattern(TIME_PATTERN);
+            try {
+            	return ((LocalDate)data).format(dtf);
+            } catch(Exception ignored) {}
+            throw new XJSONException("cannot format localDate "+data);
+        }
+        if(data instanceof LocalTime) {
+            DateTimeFormatter dtf = DateTimeFormatter.ofPattern(TIME_PATTERN);
+            try {
+            	return ((LocalTime)data).format(dtf);
+            } catch(Exception ignored) {}
+            throw new XJSONException("cannot format localTime "+data);
+        }
+        if(data instanceof LocalDateTime) {
+            DateTimeFormatter dtf = DateTimeFormatter.ofPattern(TIME_PATTERN);
+            try {
+            	return ((LocalDateTime)data).format(dtf);
+            } catch(Exception ignored) {}
+            throw new XJSONException("cannot format localDateTime "+data);
+        }
+        return null;
+	}
+
+	static void formatDate(JSONWriter out, String date, boolean isVal) {
+		if(isVal) {
+			out.append(QUOTE).append(date).append(QUOTE);
+			return;
+		}
+		out.append(date);
+	}
+
+	static void formatCollection(JSONWriter out, Collection<?> data, int tabCount, boolean isVal) {
+		if(JSONParallel.applies(data.size())) {
+			formatParallel(out, data.toArray(), tabCount, true);
+			return;
+		}
+		out.append(BRACES_L);
+		boolean first = true;
+		for(Object o: data) {
+			if(!first) {
+				out.append(COMMA);
+			}
+			first = false;
+			if(out.beautify) {
+				out.append(ENTER);
+				formatIndent(out, tabCount + 1);
+			}
+			if(o instanceof String) {
+	    		out.append(QUOTE);
+	    		formatString(out, (String)o);
+	    		out.append(QUOTE);
+			} else {
+				formatObject(out, o, tabCount + 1, false);
+			}
+		}
+		if(out.beautify && !first) {
+			out.append(ENTER);
+			formatIndent(out, tabCount);
+		}
+		out.append(BRACES_R);
+	}
+	
+	static void formatParallel(JSONWriter out, Object[] items, int tabCount, boolean quoteStrings) {
+		if(items.length == 0) {
+			out.append(BRACES_L).append(BRACES_R);
+			return;
+		}
+		out.append(BRACES_L);
+		if(out.beautify) {
+			out.append(ENTER);
+		}
+		JSONParallel.formatElements(out, items, tabCount, quoteStrings);
+		if(out.beautify) {
+			if(items.length > 0) {
+				out.append(ENTER);
+			}
+			formatIndent(out, tabCount);
+		}
+		out.append(BRACES_R);
+	}
+
+	/**
+	 * long[] or double[] backed tree arrays, written without boxing
+	 * */
+	static void formatNumberArray(JSONWriter out, XJSONArray data, int tabCount) {
+		if(data.size() == 0) {
+			out.append(BRACES_L).append(BRACES_R);
+			return;
+		}
+		out.append(BRACES_L);
+		if(out.beautify) {
+			out.append(ENTER);
+		}
+		int size = data.size();
+		for(int i = 0; i < size; i++) {
+			if(out.beautify) {
+				formatIndent(out, tabCount + 1);
+			}
+			if(data.doubles != null) {
+				out.writeDouble(data.doubles[i]);
+			} else {
+				out.writeLong(data.prims[i]);
+			}
+			if(i != size - 1) {
+				out.append(COMMA);
+			}
+			if(out.beautify) {
+				out.append(ENTER);
+			}
+		}
+		if(out.beautify) {
+			formatIndent(out, tabCount);
+		}
+		out.append(BRACES_R);
+	}
+
+	static void formatIterable(JSONWriter out, Iterable<?> data, int tabCount, boolean isVal) {
+		formatIterator(out, data.iterator(), tabCount);
+	}
+
+	/**
+	 * elements are pulled one at a time and never counted, with a sink
+	 * the output is handed on while the sequence is still being read
+	 * */
+	static void formatIterator(JSONWriter out, Iterator<?> data, int tabCount) {
+		out.append(BRACES_L);
+		boolean first = true;
+		while(data.hasNext()) {
+			Object o = data.next();
+			out.drain();
+			if(!first) {
+				out.append(COMMA);
+			}
+			first = false;
+			if(out.beautify) {
+				out.append(ENTER);
+				formatIndent(out, tabCount + 1);
+			}
+			formatObject(out, o, tabCount + 1, true);
+		}
+		if(out.beautify && !first) {
+			out.append(ENTER);
+			formatIndent(out, tabCount);
+		}
+		out.append(BRACES_R);
+	}
+
+	/**
+	 * map entries are emitted as object members, keys other than
+	 * strings are written as their string form
+	 * */
+	static void formatMap(JSONWriter out, Map<?, ?> data, int tabCount, boolean isVal) {
+		if(data.isEmpty()) {
+			out.append(B_BRACES_L).append(B_BRACES_R);
+			return;
+		}
+		out.append(B_BRACES_L);
+		if(out.beautify) {
+			out.append(ENTER);
+		}
+		int index = 1;
+		int size = data.size();
+		if(out.sortKeys && size > 1) {
+			Object[] entries = data.entrySet().toArray();
+			Arrays.sort(entries, ENTRY_KEY_ORDER);
+			for(Object e: entries) {
+				Map.Entry<?, ?> entry = (Map.Entry<?, ?>) e;
+				formatMember(out, entry.getKey(), entry.getValue(), tabCount);
+				if(index != size) {
+					out.append(COMMA);
+				}
+				if(out.beautify) {
+					out.append(ENTER);
+				}
+				++index;
+			}
+		} else {
+			for(Map.Entry<?, ?> entry: data.entrySet()) {
+				formatMember(out, entry.getKey(), entry.getValue(), tabCount);
+				if(index != size) {
+					out.append(COMMA);
+				}
+				if(out.beautify) {
+					out.append(ENTER);
+				}
+				++index;
+			}
+		}
+		if(out.beautify) {
+			formatIndent(out, tabCount);
+		}
+		out.append(B_BRACES_R);
+	}
+
+	static void formatMember(JSONWriter out, Object key, Object val, int tabCount) {
+		if(out.beautify) {
+			formatIndent(out, tabCount + 1);
+		}
+		out.append(QUOTE);
+		formatKey(out, key);
+		out.append(QUOTE).append(COLON);
+		formatObject(out, val, tabCount + 1, true);
+	}
+
+	static void formatKey(JSONWriter out, Object key) {
+		if(key instanceof String) {
+			formatString(out, (String) key);
+		} else if(key instanceof Integer || key instanceof Short || key instanceof Byte) {
+			out.writeInt(((Number) key).intValue());
+		} else if(key instanceof Long) {
+			out.writeLong((Long) key);
+		} else if(key instanceof Double) {
+			out.writeDouble((Double) key);
+		} else if(key instanceof Float) {
+			out.writeFloat((Float) key);
+		} else {
+			formatString(out, String.valueOf(key));
+		}
+	}
+
+	static int compareKeys(Object a, Object b) {
+		if(a instanceof String && b instanceof String) {
+			return ((String) a).compareTo((String) b);
+		}
+		return String.valueOf(a).compareTo(String.valueOf(b));
+	}
+	
+	static void formatClass(JSONWriter out, Object data, int tabCount, boolean isVal) 
+			throws IllegalArgumentException, IllegalAccessException {
+		JSONEncodePlan plan = JSONEncodePlan.of(data.getClass(), out.view, out.sortKeys);
+		Field[] fields = plan.fields;
+		byte[] kinds = plan.kinds;
+		int omit = out.omit;
+		boolean defaults = omit >= XJSONOmit.DEFAULTS.ordinal();
+		out.append(B_BRACES_L);
+		boolean first = true;
+		for(int i = 0; i < fields.length; i++) {
+			Field f = fields[i];
+			switch(kinds[i]) {
+			case JSONEncodePlan.INT: {
+				int v = f.getInt(data);
+				if(defaults && v == 0) {
+					continue;
+				}
+				first = formatField(out, plan.keys[i], first, tabCount);
+				out.writeInt(v);
+				break;
+			}
+			case JSONEncodePlan.LONG: {
+				long v = f.getLong(data);
+				if(defaults && v == 0) {
+					continue;
+				}
+				first = formatField(out, plan.keys[i], first, tabCount);
+				out.writeLong(v);
+				break;
+			}
+			case JSONEncodePlan.DOUBLE: {
+				double v = f.getDouble(data);
+				if(defaults && v == 0) {
+					continue;
+				}
+				first = formatField(out, plan.keys[i], first, tabCount);
+				out.writeDouble(v);
+				break;
+			}
+			case JSONEncodePlan.BOOLEAN: {
+				boolean v = f.getBoolean(data);
+				if(defaults && !v) {
+					continue;
+				}
+				first = formatField(out, plan.keys[i], first, tabCount);
+				out.append(v ? "true" : "false");
+				break;
+			}
+			default: {
+				Object v = f.get(data);
+				if(omit != 0 && JSONEncodePlan.omits(v, omit)) {
+					continue;
+				}
+				first = formatField(out, plan.keys[i], first, tabCount);
+				formatObject(out, v, tabCount + 1, true);
+			}
+			}
+		}
+		if(out.beautify && !first) {
+			out.append(ENTER);
+			formatIndent(out, tabCount);
+		}
+		out.append(B_BRACES_R);
+	}
+
+	/**
+	 * separator and key of a field that is written, commas go before
+	 * every written field but the first so skipped fields leave none
+	 * */
+	static boolean formatField(JSONWriter out, char[] key, boolean first, int tabCount) {
+		if(!first) {
+			out.append(COMMA);
+		}
+		if(out.beautify) {
+			out.append(ENTER);
+			formatIndent(out, tabCount + 1);
+		}
+		out.append(key, 0, key.length);
+		return false;
+	}
+	
+	static void formatArray(JSONWriter out, Object data, int tabCount, boolean isVal) {
+		if(JSONParallel.applies(((Object[]) data).length)) {
+			formatParallel(out, (Object[]) data, tabCount, data instanceof String[]);
+			return;
+		}
+		if(((Object[]) data).length == 0) {
+			out.append(BRACES_L).append(BRACES_R);
+			return;
+		}
+		out.append(BRACES_L);
+		if(out.beautify) {
+			out.append(ENTER);
+		}
+		if(data instanceof String[]) {
+			int index = ((String[])data).length;
+	    	for(String b: (String[])data) {
+	    		if(out.beautify) {
+	    			formatIndent(out, tabCount + 1);
+	    		}
+	    		if(b == null) {
+	    			out.append("null");
+	    		} else {
+	    			out.append(QUOTE);
+	    			formatString(out, b);
+	    			out.append(QUOTE);
+	    		}
+	    		if(index != 1) {
+	    			out.append(COMMA);
+	    		}
+	    		if(out.beautify) {
+	    			out.append(ENTER);
+	    		}
+	    		--index;
+	    	}
+		} else {
+			int index = ((Object[])data).length;
+	    	for(Object b: (Object[])data) {
+	    		if(out.beautify) {
+	    			formatIndent(out, tabCount + 1);
+	    		}
+	    		formatObject(out, b, tabCount + 1,  false);
+	    		if(index != 1) {
+	    			out.append(COMMA);
+	    		}
+	    		if(out.beautify) {
+	    			out.append(ENTER);
+	    		}
+	    		--index;
+	    	}
+		}
+		if(out.beautify) {
+			formatIndent(out, tabCount);
+		}
+    	out.append(BRACES_R);
+	}
+
+	static void formatIndent(JSONWriter out, int tabCount) {
+		int n = tabCount * TAB.length();
+		while(n > 0) {
+			int len = n < INDENT.length ? n : INDENT.length;
+			out.append(INDENT, 0, len);
+			n -= len;
+		}
+	}
+
+	static void formatString(JSONWriter out, String src) {
+		if(out.canonical) {
+			formatCanonicalString(out, src);
+			return;
+		}
+		int len = src.length();
+		out.ensureCapacity(len);
+		for(int i = 0; i < len; i++) {
+			char c = src.charAt(i);
+			if(c == QUOTE) {
+				out.append(BACKSLASH);
+			}
+			out.append(c);
+		}
+	}
+
+	/**
+	 * rfc 8785 escaping, only quote, backslash and control chars
+	 * */
+	static void formatCanonicalString(JSONWriter out, String src) {
+		int len = src.length();
+		out.ensureCapacity(len);
+		for(int i = 0; i < len; i++) {
+			char c = src.charAt(i);
+			if(c >= 0x20 && c != QUOTE && c != BACKSLASH) {
+				out.append(c);
+				continue;
+			}
+			out.append(BACKSLASH);
+			switch(c) {
+			case QUOTE:
+			case BACKSLASH:
+				out.append(c);
+				break;
+			case '\b':
+				out.append('b');
+				break;
+			case '\f':
+				out.append('f');
+				break;
+			case '\n':
+				out.append('n');
+				break;
+			case '\r':
+				out.append('r');
+				break;
+			case '\t':
+				out.append('t');
+				break;
+			default:
+				out.append("u00").append(HEX[c >> 4]).append(HEX[c & 0xf]);
+			}
+		}
+	}
+
+	static void formatPrimitive(JSONWriter out, Object val) 
+			throws XJSONException {
+		Class<?> cls = val.getClass();
+		if(BOOL_TYPE.equals(cls.getName())) {
+			out.append((boolean) val ? "true" : "false");
+		} else if(BYTE_TYPE.equals(cls.getName())) {
+			out.writeInt((byte) val);
+		} else if(CHAR_TYPE.equals(cls.getName())) {
+			out.append(SINGLE_QUOTE).append((char) val).append(SINGLE_QUOTE);
+		} else if(SHORT_TYPE.equals(cls.getName())) {
+			out.writeInt((short) val);
+		} else if(INT_TYPE.equals(cls.getName())) {
+			out.writeInt((int) val);
+		} else if(LONG_TYPE.equals(cls.getName())) {
+			out.writeLong((long) val);
+		} else if(FLOAT_TYPE.equals(cls.getName())) {
+			out.writeFloat((float) val);
+		} else if(DOUBLE_TYPE.equals(cls.getName())) {
+			out.writeDouble((double) val);
+		} else {
+			throw new XJSONException("unknown primitive type '" 
+					+ cls.getName() + "'");
+		}
+	}
+	
+	static JSONWriter leaseWriter(Object data) {
+		Integer hint = data == null ? null : SIZE_HINTS.get(data.getClass());
+		JSONWriter out = JSONWriter.lease(hint == null ? JSONWriter.DEFAULT_CAPACITY : hint);
+		out.beautify = BEAUTIFY;
+		out.sortKeys = SORT_KEYS;
+		out.canonical = false;
+		out.view = null;
+		out.omit = OMIT.ordinal();
+		return out;
+	}
+
+	static JSONWriter leaseCanonicalWriter(int capacity) {
+		JSONWriter out = JSONWriter.lease(capacity);
+		out.beautify = false;
+		out.sortKeys = true;
+		out.canonical = true;
+		out.view = null;
+		// a process wide display setting must not change the canonical form
+		out.omit = 0;
+		return out;
+	}
+
+	/**
+	 * keeps a per class estimate of the output length, only written
+	 * back when the output does not fit or the estimate is far too big
+	 * */
+	static void learnSize(Object data, int size) {
+		if(data == null) {
+			return;
+		}
+		Class<?> cls = data.getClass();
+		Integer hint = SIZE_HINTS.get(cls);
+		if(hint == null || size > hint || size < (hint >> 2)) {
+			if(hint != null || SIZE_HINTS.size() < MAX_SIZE_HINTS) {
+				SIZE_HINTS.put(cls, size + (size >> 3));
+			}
+		}
+	}
+
+	static String stringifyOneObject(Object data) {
+		JSONWriter out = leaseWriter(data);
+		try {
+			formatObject(out, data, 0, true);
+			learnSize(data, out.count);
+			return out.toString();
+		} finally {
+			out.release();
+		}
+	}
+
+	static String stringifyView(Object data, JSONEncodePlan.View view) {
+		JSONWriter out = leaseWriter(data);
+		out.view = view;
+		try {
+			formatObject(out, data, 0, true);
+			return out.toString();
+		} finally {
+			out.release();
+		}
+	}
+
+	static String stringifyCanonical(Object data) {
+		JSONWriter out = leaseCanonicalWriter(JSONWriter.DEFAULT_CAPACITY);
+		try {
+			formatObject(out, data, 0, true);
+			return out.toString();
+		} finally {
+			out.release();
+		}
+	}
+
+	/**
+	 * compact text a codec writes for data, for the encoders that do not
+	 * write text themselves
+	 * */
+	static String codecText(XJSONCodec<Object> codec, Object data) {
+		JSONWriter out = JSONWriter.lease(JSONWriter.DEFAULT_CAPACITY);
+		try {
+			XJSONGenerator gen = new XJSONGenerator(out, 0);
+			codec.write(gen, data);
+			gen.finish();
+			return out.toString();
+		} finally {
+			out.release();
+		}
+	}
+
+	/**
+	 * a raw fragment keeps its own whitespace and key order, in
+	 * canonical output it is parsed and encoded again, once per fragment
+	 * */
+	static String canonicalRaw(XJSONRaw raw) {
+		String ret = raw.canonical;
+		if(ret == null) {
+			JSONTreeParser parser = new JSONTreeParser(raw.json.toCharArray());
+			parser.readDocumentValue();
+			ret = stringifyCanonical(XJSONObject.box(parser.valStack[0], parser.primStack, 0));
+			raw.canonical = ret;
+		}
+		return ret;
+	}
+
+	/**
+	 * canonical output is encoded to utf-8 chunk by chunk straight
+	 * into the digest, the document never exists as a whole
+	 * */
+	static byte[] hash(Object data, MessageDigest digest) {
+		JSONWriter out = leaseCanonicalWriter(JSONByteSink.DEFAULT_CHUNK);
+		JSONByteSink sink = new JSONByteSink() {
+			@Override
+			void writeBytes(byte[] b, int offset, int len) {
+				digest.update(b, offset, len);
+			}
+		};
+		out.sink = sink;
+		try {
+			formatObject(out, data, 0, true);
+			out.flush();
+			sink.finish();
+			return digest.digest();
+		} finally {
+			out.release();
+		}
+	}
+
+	static byte[] stringifyToBytes(Object data) {
+		JSONWriter out = leaseWriter(data);
+		try {
+			formatObject(out, data, 0, true);
+			learnSize(data, out.count);
+			return out.toUTF8();
+		} finally {
+			out.release();
+		}
+	}
+
+	/**
+	 * writes to w as the buffer fills, long sequences are written in
+	 * chunks while they are iterated. returns the number of chars written
+	 * */
+	static long stringifyTo(Object data, Writer w) {
+		JSONWriter out = leaseWriter(data);
+		long[] written = new long[1];
+		out.sink = (char[] chars, int offset, int len) -> {
+			try {
+				w.write(chars, offset, len);
+				written[0] += len;
+			} catch (IOException e) {
+				throw new XJSONException(e);
+			}
+		};
+		try {
+			formatObject(out, data, 0, true);
+			out.flush();
+			w.flush();
+			return written[0];
+		} catch (IOException e) {
+			throw new XJSONException(e);
+		} finally {
+			out.release();
+		}
+	}
+
+	/**
+	 * utf-8 to os as the buffer fills, like the Writer variant. returns
+	 * the number of bytes written
+	 * */
+	static long stringifyTo(Object data, OutputStream os) {
+		JSONWriter out = leaseWriter(data);
+		long[] written = new long[1];
+		JSONByteSink sink = new JSONByteSink() {
+			@Override
+			void writeBytes(byte[] b, int offset, int len) {
+				try {
+					os.write(b, offset, len);
+					written[0] += len;
+				} catch (IOException e) {
+					throw new XJSONException(e);
+				}
+			}
+		};
+		out.sink = sink;
+		try {
+			formatObject(out, data, 0, true);
+			out.flush();
+			sink.finish();
+			os.flush();
+			return written[0];
+		} catch (IOException e) {
+			throw new XJSONException(e);
+		} finally {
+			out.release();
+		}
+	}
+}
@@ -0,0 +1,94 @@
+package json.xjson;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * listener behind XJSON.useFlightRecorderMode, turns every XJSONEvent into
+ * a json.xjson.Parse or json.xjson.Stringify JFR event. the events are
+ * built after the call, so the measured time is in the elapsed field and
+ * not in the event's own duration
+ * */
+class JSONFlightEvents implements XJSONListener {
+	
+	static final JSONFlightEvents INSTANCE = new JSONFlightEvents();
+	
+	@Category({"XJSON"})
+	@StackTrace(false)
+	static abstract class JSONEvent extends Event {
+		
+		@Label("Operation")
+		String operation;
+		
+		@Label("Type")
+		Class<?> type;
+		
+		@Label("Size")
+		@Description("chars of json text, or bytes for binary and utf-8 forms")
+		@DataAmount(DataAmount.BYTES)
+		long size;
+		
+		@Label("Elapsed")
+		@Timespan(Timespan.NANOSECONDS)
+		long elapsed;
+		
+		@Label("Depth")
+		int depth;
+		
+		@Label("Elements")
+		int elements;
+		
+		@Label("Error")
+		Class<?> error;
+		
+		@Label("Message")
+		String message;
+		
+		void fill(XJSONEvent e) {
+			operation = e.operation();
+			type = e.type();
+			size = e.size();
+			elapsed = e.nanos();
+			depth = e.depth();
+			elements = e.elements();
+			if(e.failed()) {
+				error = e.error().getClass();
+				message = e.error().getMessage();
+			}
+		}
+	}
+	
+	@Name("json.xjson.Parse")
+	@Label("JSON Parse")
+	static class ParseEvent extends JSONEvent {
+	}
+	
+	@Name("json.xjson.Stringify")
+	@Label("JSON Stringify")
+	static class StringifyEvent extends JSONEvent {
+	}
+	
+	@Override
+	public void onParse(XJSONEvent event) {
+		ParseEvent e = new ParseEvent();
+		if(e.shouldCommit()) {
+			e.fill(event);
+			e.commit();
+		}
+	}
+	
+	@Override
+	public void onStringify(XJSONEvent event) {
+		StringifyEvent e = new StringifyEvent();
+		if(e.shouldCommit()) {
+			e.fill(event);
+			e.commit();
+		}
+	}
+}
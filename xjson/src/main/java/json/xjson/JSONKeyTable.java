@@ -0,0 +1,40 @@
+package json.xjson;
+
+/**
+ * member names seen by one XJSONContext, looked up straight from the
+ * source chars so a known name costs no String. a slot holds the last
+ * name hashed to it, colliding names simply replace each other.
+ * */
+class JSONKeyTable {
+
+	static final int SIZE = 1024;
+
+	final String[] table = new String[SIZE];
+
+	String get(char[] chars, int offset, int len) {
+		int h = 0;
+		for(int i = offset; i < offset + len; i++) {
+			h = 31 * h + chars[i];
+		}
+		int slot = XJSONObject.spread(h) & (SIZE - 1);
+		String key = table[slot];
+		if(key != null && key.hashCode() == h && matches(key, chars, offset, len)) {
+			return key;
+		}
+		key = JSONTreeParser.share(new String(chars, offset, len));
+		table[slot] = key;
+		return key;
+	}
+
+	static boolean matches(String key, char[] chars, int offset, int len) {
+		if(key.length() != len) {
+			return false;
+		}
+		for(int i = 0; i < len; i++) {
+			if(key.charAt(i) != chars[offset + i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
@@ -0,0 +1,273 @@
+package json.xjson;
+
+import java.lang.reflect.Array;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.OptionalInt;
+import java.util.OptionalLong;
+import java.util.function.Supplier;
+import java.util.stream.BaseStream;
+
+/**
+ * compact encoding under XJSONLimits for logs. containers are walked
+ * here so every element and member can be checked against the limits,
+ * leaves go through JSONEncoder.formatObject as usual. the budget is
+ * counted in utf-8 bytes as the output grows. a cut container
+ * ends with the marker, an element in arrays and a key with null in
+ * objects, so the output stays valid json.
+ * the containers on the current path are tracked by identity, a
+ * container met again below itself is written as "...(cycle)".
+ * */
+class JSONLimitedEncoder {
+
+	static final String TRUNCATED = "...(truncated)";
+	static final String CYCLE = "...(cycle)";
+
+	final JSONWriter out;
+	final XJSONLimits limits;
+	final IdentityHashMap<Object, Boolean> path = new IdentityHashMap<>();
+	/**
+	 * utf-8 bytes of out up to counted
+	 * */
+	long bytes;
+	int counted;
+
+	JSONLimitedEncoder(JSONWriter out, XJSONLimits limits) {
+		this.out = out;
+		this.limits = limits;
+	}
+
+	static String stringify(Object data, XJSONLimits limits) {
+		JSONWriter out = JSONEncoder.leaseWriter(data);
+		out.beautify = false;
+		try {
+			new JSONLimitedEncoder(out, limits).value(data, 0);
+			return out.toString();
+		} finally {
+			out.release();
+		}
+	}
+
+	long bytes() {
+		bytes += JSONUtf8.length(out.buf, counted, out.count);
+		counted = out.count;
+		return bytes;
+	}
+
+	boolean full() {
+		return bytes() >= limits.maxBytes;
+	}
+
+	void marker(String text) {
+		out.append(JSONEncoder.QUOTE).append(text).append(JSONEncoder.QUOTE);
+	}
+
+	void value(Object v, int depth) {
+		if(v instanceof String || v instanceof XJSONString) {
+			string(v.toString());
+			return;
+		}
+		if(leaf(v)) {
+			leafValue(v);
+			return;
+		}
+		if(depth >= limits.maxDepth) {
+			marker(TRUNCATED);
+			return;
+		}
+		if(v instanceof Optional) {
+			value(((Optional<?>) v).orElse(null), depth + 1);
+			return;
+		}
+		if(v instanceof Supplier) {
+			value(((Supplier<?>) v).get(), depth + 1);
+			return;
+		}
+		if(path.put(v, Boolean.TRUE) != null) {
+			marker(CYCLE);
+			return;
+		}
+		try {
+			container(v, depth);
+		} finally {
+			path.remove(v);
+		}
+	}
+
+	/**
+	 * values JSONEncoder.formatObject writes before it reaches containers
+	 * */
+	static boolean leaf(Object v) {
+		if(v == null || v instanceof Boolean || v instanceof Number || v instanceof Character || 
+				v instanceof XJSONRaw || v instanceof XJSONString) {
+			return true;
+		}
+		if(!JSONCodecs.WRITERS.isEmpty() && JSONCodecs.writer(v.getClass()) != null) {
+			return true;
+		}
+		if(v instanceof OptionalInt || v instanceof OptionalLong || v instanceof OptionalDouble) {
+			return true;
+		}
+		return JSONEncoder.dateString(v) != null;
+	}
+
+	/**
+	 * raw fragments and codec output have no size of their own, one
+	 * that runs over the budget is taken back and replaced by the marker
+	 * */
+	void leafValue(Object v) {
+		if(!(v instanceof XJSONRaw) && (JSONCodecs.WRITERS.isEmpty() || JSONCodecs.writer(v.getClass()) == null)) {
+			JSONEncoder.formatObject(out, v, 0, true);
+			return;
+		}
+		long used = bytes();
+		int at = out.count;
+		JSONEncoder.formatObject(out, v, 0, true);
+		if(used + JSONUtf8.length(out.buf, at, out.count) > limits.maxBytes) {
+			out.count = at;
+			marker(TRUNCATED);
+		}
+	}
+
+	void string(String s) {
+		long room = limits.maxBytes - bytes() - 2;
+		int n = prefix(s, (int) Math.max(0, Math.min(Integer.MAX_VALUE, room)));
+		out.append(JSONEncoder.QUOTE);
+		if(n == s.length()) {
+			JSONEncoder.formatString(out, s);
+		} else {
+			if(n > 0 && Character.isHighSurrogate(s.charAt(n - 1))) {
+				n--;
+			}
+			JSONEncoder.formatString(out, s.substring(0, n));
+			out.append(TRUNCATED);
+		}
+		out.append(JSONEncoder.QUOTE);
+	}
+
+	/**
+	 * chars of s kept within maxStringLength chars and room utf-8 bytes
+	 * */
+	int prefix(String s, int room) {
+		int max = Math.min(s.length(), limits.maxStringLength);
+		int used = 0;
+		for(int i = 0; i < max; i++) {
+			char c = s.charAt(i);
+			used += c < 0x80 ? 1 : c < 0x800 ? 2 : Character.isSurrogate(c) ? 2 : 3;
+			if(used > room) {
+				return i;
+			}
+		}
+		return max;
+	}
+
+	/**
+	 * keys are cut like strings, formatKey writes numbers in their
+	 * String.valueOf form too
+	 * */
+	void key(Object k) {
+		string(String.valueOf(k));
+		out.append(JSONEncoder.COLON);
+	}
+
+	void container(Object v, int depth) {
+		if(v instanceof Map) {
+			out.append(JSONEncoder.B_BRACES_L);
+			int n = 0;
+			for(Map.Entry<?, ?> e: ((Map<?, ?>) v).entrySet()) {
+				if(!member(n++)) {
+					break;
+				}
+				key(e.getKey());
+				value(e.getValue(), depth + 1);
+			}
+			out.append(JSONEncoder.B_BRACES_R);
+			return;
+		}
+		if(v.getClass().isArray()) {
+			out.append(JSONEncoder.BRACES_L);
+			int len = Array.getLength(v);
+			for(int i = 0; i < len; i++) {
+				if(!element(i)) {
+					break;
+				}
+				value(Array.get(v, i), depth + 1);
+			}
+			out.append(JSONEncoder.BRACES_R);
+			return;
+		}
+		if(v instanceof Iterable) {
+			elements(((Iterable<?>) v).iterator(), depth);
+			return;
+		}
+		if(v instanceof BaseStream) {
+			try(BaseStream<?, ?> stream = (BaseStream<?, ?>) v) {
+				elements(stream.iterator(), depth);
+			}
+			return;
+		}
+		Iterator<?> seq = JSONEncoder.sequence(v);
+		if(seq != null) {
+			elements(seq, depth);
+			return;
+		}
+		JSONEncodePlan plan = JSONEncodePlan.of(v.getClass(), null, out.sortKeys);
+		out.append(JSONEncoder.B_BRACES_L);
+		for(int i = 0; i < plan.fields.length; i++) {
+			if(!member(i)) {
+				break;
+			}
+			Object fv;
+			try {
+				fv = plan.fields[i].get(v);
+			} catch (IllegalArgumentException | IllegalAccessException e) {
+				throw new XJSONException("cannot format data " + v);
+			}
+			out.append(plan.keys[i], 0, plan.keys[i].length);
+			value(fv, depth + 1);
+		}
+		out.append(JSONEncoder.B_BRACES_R);
+	}
+
+	void elements(Iterator<?> it, int depth) {
+		out.append(JSONEncoder.BRACES_L);
+		int n = 0;
+		while(it.hasNext()) {
+			if(!element(n++)) {
+				break;
+			}
+			value(it.next(), depth + 1);
+		}
+		out.append(JSONEncoder.BRACES_R);
+	}
+
+	/**
+	 * writes the separator before element i, or the marker and false
+	 * once a limit is reached
+	 * */
+	boolean element(int i) {
+		if(i > 0) {
+			out.append(JSONEncoder.COMMA);
+		}
+		if(i >= limits.maxElements || full()) {
+			marker(TRUNCATED);
+			return false;
+		}
+		return true;
+	}
+
+	boolean member(int i) {
+		if(i > 0) {
+			out.append(JSONEncoder.COMMA);
+		}
+		if(i >= limits.maxElements || full()) {
+			marker(TRUNCATED);
+			out.append(JSONEncoder.COLON).append("null");
+			return false;
+		}
+		return true;
+	}
+}
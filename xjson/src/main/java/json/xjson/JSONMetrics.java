@@ -0,0 +1,127 @@
+package json.xjson;
+
+import java.util.Arrays;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * dispatch of XJSONEvent to the registered listeners. XJSON checks off()
+ * before every call, nothing else runs while no listener is registered
+ * */
+class JSONMetrics {
+	
+	private static final XJSONListener[] NONE = new XJSONListener[0];
+	
+	/**
+	 * copy on write, read on every call and changed rarely
+	 * */
+	private static volatile XJSONListener[] LISTENERS = NONE;
+	
+	static boolean off() {
+		return LISTENERS.length == 0;
+	}
+	
+	static synchronized void add(XJSONListener listener) {
+		XJSONListener[] ls = LISTENERS;
+		for(XJSONListener l : ls) {
+			if(l == listener) {
+				return;
+			}
+		}
+		ls = Arrays.copyOf(ls, ls.length + 1);
+		ls[ls.length - 1] = listener;
+		LISTENERS = ls;
+	}
+	
+	static synchronized void remove(XJSONListener listener) {
+		XJSONListener[] ls = LISTENERS;
+		for(int i = 0; i < ls.length; i++) {
+			if(ls[i] == listener) {
+				XJSONListener[] next = new XJSONListener[ls.length - 1];
+				System.arraycopy(ls, 0, next, 0, i);
+				System.arraycopy(ls, i + 1, next, i, next.length - i);
+				LISTENERS = next.length == 0 ? NONE : next;
+				return;
+			}
+		}
+	}
+	
+	/**
+	 * runs work and reports input, the json String or the binary form
+	 * */
+	static <T> T parse(String operation, Class<?> type, Object input, Supplier<T> work) {
+		Object text = input instanceof String ? input : null;
+		long start = System.nanoTime();
+		T result;
+		try {
+			result = work.get();
+		} catch(RuntimeException | Error e) {
+			fire(true, new XJSONEvent(operation, type, text, size(input), System.nanoTime() - start, e));
+			throw e;
+		}
+		fire(true, new XJSONEvent(operation, type, text, size(input), System.nanoTime() - start, null));
+		return result;
+	}
+	
+	/**
+	 * runs work and reports its output, a String or byte[] which is utf-8
+	 * json unless binary
+	 * */
+	static <T> T stringify(String operation, Object data, boolean binary, Supplier<T> work) {
+		Class<?> type = data == null ? null : data.getClass();
+		long start = System.nanoTime();
+		T result;
+		try {
+			result = work.get();
+		} catch(RuntimeException | Error e) {
+			fire(false, new XJSONEvent(operation, type, null, 0, System.nanoTime() - start, e));
+			throw e;
+		}
+		fire(false, new XJSONEvent(operation, type, binary ? null : result, size(result), System.nanoTime() - start, null));
+		return result;
+	}
+	
+	/**
+	 * runs work, which streams its output and returns the chars or bytes
+	 * written, the text itself is not kept
+	 * */
+	static void stringifyTo(String operation, Object data, LongSupplier work) {
+		Class<?> type = data == null ? null : data.getClass();
+		long start = System.nanoTime();
+		long written;
+		try {
+			written = work.getAsLong();
+		} catch(RuntimeException | Error e) {
+			fire(false, new XJSONEvent(operation, type, null, 0, System.nanoTime() - start, e));
+			throw e;
+		}
+		fire(false, new XJSONEvent(operation, type, null, written, System.nanoTime() - start, null));
+	}
+	
+	private static long size(Object text) {
+		if(text instanceof String) {
+			return ((String) text).length();
+		}
+		if(text instanceof byte[]) {
+			return ((byte[]) text).length;
+		}
+		return 0;
+	}
+	
+	/**
+	 * a failing listener must not turn a successful call into an error
+	 * */
+	private static void fire(boolean parse, XJSONEvent event) {
+		for(XJSONListener l : LISTENERS) {
+			try {
+				if(parse) {
+					l.onParse(event);
+				} else {
+					l.onStringify(event);
+				}
+			} catch(RuntimeException e) {
+				// ignored
+			}
+		}
+	}
+}
@@ -0,0 +1,118 @@
+package json.xjson;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * containers handed out by one XJSONContext, bucketed by size. nodes are
+ * taken by bumping a per bucket cursor and reset() rewinds every cursor,
+ * so the next documents refill the same nodes instead of allocating.
+ * containers above MAX_POOLED_SIZE are left to the normal path.
+ * */
+class JSONNodePool {
+
+	static final int MAX_POOLED_SIZE = 64;
+
+	final Bucket<XJSONObject> objects = new Bucket<>();
+	final Bucket<XJSONArray> arrays = new Bucket<>();
+	final Bucket<XJSONArray> longArrays = new Bucket<>();
+	final Bucket<XJSONArray> doubleArrays = new Bucket<>();
+
+	static class Bucket<T> {
+
+		/**
+		 * generic arrays can not be created, the raw array is only
+		 * ever filled with ArrayList<T>
+		 * */
+		@SuppressWarnings({"unchecked", "rawtypes"})
+		final ArrayList<T>[] nodes = new ArrayList[MAX_POOLED_SIZE + 1];
+		final int[] used = new int[MAX_POOLED_SIZE + 1];
+
+		T take(int size) {
+			ArrayList<T> list = nodes[size];
+			if(list == null || used[size] == list.size()) {
+				return null;
+			}
+			return list.get(used[size]++);
+		}
+
+		T add(int size, T node) {
+			if(nodes[size] == null) {
+				nodes[size] = new ArrayList<>();
+			}
+			nodes[size].add(node);
+			++used[size];
+			return node;
+		}
+
+		/**
+		 * gives back the node taken last when it could not be used
+		 * */
+		void untake(int size) {
+			--used[size];
+		}
+
+		void reset() {
+			Arrays.fill(used, 0);
+		}
+	}
+
+	XJSONObject object(JSONTreeParser p, int base) {
+		int n = p.top - base;
+		if(n > MAX_POOLED_SIZE) {
+			return null;
+		}
+		XJSONObject node = objects.take(n);
+		if(node == null) {
+			node = objects.add(n, new XJSONObject(new String[n], new Object[n], new long[n],
+					n > XJSONObject.INDEX_THRESHOLD ? new int[XJSONObject.tableSize(n)] : null));
+		}
+		System.arraycopy(p.keyStack, base, node.keys, 0, n);
+		System.arraycopy(p.valStack, base, node.values, 0, n);
+		System.arraycopy(p.primStack, base, node.prims, 0, n);
+		if(node.reindex()) {
+			return node;
+		}
+		objects.untake(n);
+		return null;
+	}
+
+	XJSONArray array(JSONTreeParser p, int base, boolean numbers, boolean fractions) {
+		int n = p.top - base;
+		if(n > MAX_POOLED_SIZE) {
+			return null;
+		}
+		if(numbers && !fractions) {
+			XJSONArray node = longArrays.take(n);
+			if(node == null) {
+				node = longArrays.add(n, new XJSONArray(new long[n]));
+			}
+			System.arraycopy(p.primStack, base, node.prims, 0, n);
+			return node;
+		}
+		if(numbers) {
+			XJSONArray node = doubleArrays.take(n);
+			if(node == null) {
+				node = doubleArrays.add(n, new XJSONArray(new double[n]));
+			}
+			for(int i = 0; i < n; i++) {
+				node.doubles[i] = Double.longBitsToDouble(p.primStack[base + i]);
+			}
+			return node;
+		}
+		XJSONArray node = arrays.take(n);
+		if(node == null) {
+			node = arrays.add(n, new XJSONArray(new Object[n], new long[n]));
+		}
+		System.arraycopy(p.valStack, base, node.items, 0, n);
+		System.arraycopy(p.primStack, base, node.prims, 0, n);
+		return node;
+	}
+
+	void reset() {
+		objects.reset();
+		arrays.reset();
+		longArrays.reset();
+		doubleArrays.reset();
+	}
+}
@@ -0,0 +1,584 @@
+package json.xjson;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * number writers appending straight into a char buffer.
+ * integers are written with a two digits lookup table, float and
+ * double with the schubfach algorithm, which produces the shortest
+ * decimal that parses back to the same binary value.
+ * canonical output lays the same digits out the ecmascript way
+ * (rfc 8785): no ".0" on integers and exponents only below 1e-6
+ * or from 1e21 on.
+ * */
+class JSONNumber {
+
+	/**
+	 * enough room for any int, long, float or double
+	 * */
+	static final int MAX_CHARS = 32;
+
+	static final char[] DIGIT_TENS = new char[100];
+	static final char[] DIGIT_ONES = new char[100];
+
+	static final char[] MIN_INT = "-2147483648".toCharArray();
+	static final char[] MIN_LONG = "-9223372036854775808".toCharArray();
+	static final char[] ZERO = {'0', '.', '0'};
+	static final char[] CANONICAL_ZERO = {'0'};
+	static final char[] NAN = {'N', 'a', 'N'};
+	static final char[] INFINITY = {'I', 'n', 'f', 'i', 'n', 'i', 't', 'y'};
+
+	static final long MASK_63 = (1L << 63) - 1;
+	static final long MASK_32 = (1L << 32) - 1;
+
+	/**
+	 * double layout
+	 * */
+	static final int D_P = 53;
+	static final int D_Q_MIN = -1074;
+	static final long D_C_MIN = 1L << (D_P - 1);
+	static final long D_T_MASK = D_C_MIN - 1;
+	static final int D_BQ_MASK = 0x7ff;
+	static final int D_C_TINY = 3;
+
+	/**
+	 * float layout
+	 * */
+	static final int F_P = 24;
+	static final int F_Q_MIN = -149;
+	static final int F_C_MIN = 1 << (F_P - 1);
+	static final int F_T_MASK = F_C_MIN - 1;
+	static final int F_BQ_MASK = 0xff;
+	static final int F_C_TINY = 8;
+
+	/**
+	 * g table, 126 bits approximations of 10^-k split in two 63 bits halves
+	 * */
+	static final int K_MIN = -324;
+	static final int K_MAX = 292;
+	static final long[] G = new long[(K_MAX - K_MIN + 1) << 1];
+
+	static {
+		for(int i = 0; i < 100; i++) {
+			DIGIT_TENS[i] = (char) ('0' + i / 10);
+			DIGIT_ONES[i] = (char) ('0' + i % 10);
+		}
+		for(int k = K_MIN; k <= K_MAX; k++) {
+			int shift = 125 - flog2pow10(-k);
+			BigInteger g;
+			if(k <= 0) {
+				BigInteger p = BigInteger.TEN.pow(-k);
+				g = shift >= 0 ? p.shiftLeft(shift) : p.shiftRight(-shift);
+			} else {
+				g = BigInteger.ONE.shiftLeft(shift).divide(BigInteger.TEN.pow(k));
+			}
+			g = g.add(BigInteger.ONE);
+			G[(k - K_MIN) << 1] = g.shiftRight(63).longValue();
+			G[((k - K_MIN) << 1) + 1] = g.longValue() & MASK_63;
+		}
+	}
+
+	static int flog10pow2(int e) {
+		return (int) (e * 661_971_961_083L >> 41);
+	}
+
+	static int flog10threeQuartersPow2(int e) {
+		return (int) (e * 661_971_961_083L - 274_743_187_321L >> 41);
+	}
+
+	static int flog2pow10(int e) {
+		return (int) (e * 913_124_641_741L >> 38);
+	}
+
+	static int stringSize(int x) {
+		int p = 10;
+		for(int i = 1; i < 10; i++) {
+			if(x < p) {
+				return i;
+			}
+			p = 10 * p;
+		}
+		return 10;
+	}
+
+	static int stringSize(long x) {
+		long p = 10;
+		for(int i = 1; i < 19; i++) {
+			if(x < p) {
+				return i;
+			}
+			p = 10 * p;
+		}
+		return 19;
+	}
+
+	static int writeInt(char[] buf, int pos, int v) {
+		if(v == Integer.MIN_VALUE) {
+			System.arraycopy(MIN_INT, 0, buf, pos, MIN_INT.length);
+			return pos + MIN_INT.length;
+		}
+		if(v < 0) {
+			buf[pos++] = '-';
+			v = -v;
+		}
+		int end = pos + stringSize(v);
+		int p = end;
+		while(v >= 100) {
+			int q = v / 100;
+			int r = v - q * 100;
+			v = q;
+			buf[--p] = DIGIT_ONES[r];
+			buf[--p] = DIGIT_TENS[r];
+		}
+		buf[--p] = DIGIT_ONES[v];
+		if(v >= 10) {
+			buf[--p] = DIGIT_TENS[v];
+		}
+		return end;
+	}
+
+	static int writeLong(char[] buf, int pos, long v) {
+		if(v == Long.MIN_VALUE) {
+			System.arraycopy(MIN_LONG, 0, buf, pos, MIN_LONG.length);
+			return pos + MIN_LONG.length;
+		}
+		if(v < 0) {
+			buf[pos++] = '-';
+			v = -v;
+		}
+		if(v <= Integer.MAX_VALUE) {
+			return writeInt(buf, pos, (int) v);
+		}
+		int end = pos + stringSize(v);
+		int p = end;
+		while(v > Integer.MAX_VALUE) {
+			long q = v / 100;
+			int r = (int) (v - q * 100);
+			v = q;
+			buf[--p] = DIGIT_ONES[r];
+			buf[--p] = DIGIT_TENS[r];
+		}
+		writeInt(buf, pos, (int) v);
+		return end;
+	}
+
+	static int writeDouble(char[] buf, int pos, double v) {
+		return writeDouble(buf, pos, v, false);
+	}
+
+	static int writeDouble(char[] buf, int pos, double v, boolean canonical) {
+		long bits = Double.doubleToRawLongBits(v);
+		long t = bits & D_T_MASK;
+		int bq = (int) (bits >>> (D_P - 1)) & D_BQ_MASK;
+		if(bq == D_BQ_MASK) {
+			if(canonical) {
+				throw new XJSONException("can not write " + v + " in canonical json");
+			}
+			if(t != 0) {
+				return copy(NAN, buf, pos);
+			}
+			if(bits < 0) {
+				buf[pos++] = '-';
+			}
+			return copy(INFINITY, buf, pos);
+		}
+		if(bq == 0 && t == 0) {
+			if(canonical) {
+				return copy(CANONICAL_ZERO, buf, pos);
+			}
+			if(bits < 0) {
+				buf[pos++] = '-';
+			}
+			return copy(ZERO, buf, pos);
+		}
+		if(bits < 0) {
+			buf[pos++] = '-';
+		}
+		if(bq != 0) {
+			int mq = -D_Q_MIN + 1 - bq;
+			long c = D_C_MIN | t;
+			/**
+			 * integer values below 2^53 need no rounding at all
+			 * */
+			if(0 < mq && mq < D_P) {
+				long f = c >> mq;
+				if(f << mq == c) {
+					return writeDecimal(buf, pos, f, 0, canonical);
+				}
+			}
+			return doubleToDecimal(buf, pos, -mq, c, 0, canonical);
+		}
+		return t < D_C_TINY ?
+				doubleToDecimal(buf, pos, D_Q_MIN, 10 * t, -1, canonical) :
+				doubleToDecimal(buf, pos, D_Q_MIN, t, 0, canonical);
+	}
+
+	static int doubleToDecimal(char[] buf, int pos, int q, long c, int dk, boolean canonical) {
+		int out = (int) c & 0x1;
+		long cb = c << 2;
+		long cbr = cb + 2;
+		long cbl;
+		int k;
+		if(c != D_C_MIN || q == D_Q_MIN) {
+			cbl = cb - 2;
+			k = flog10pow2(q);
+		} else {
+			cbl = cb - 1;
+			k = flog10threeQuartersPow2(q);
+		}
+		int h = q + flog2pow10(-k) + 2;
+		long g1 = G[(k - K_MIN) << 1];
+		long g0 = G[((k - K_MIN) << 1) + 1];
+
+		long vb = rop(g1, g0, cb << h);
+		long vbl = rop(g1, g0, cbl << h);
+		long vbr = rop(g1, g0, cbr << h);
+
+		long s = vb >> 2;
+		if(s >= 100) {
+			long sp10 = 10 * Math.multiplyHigh(s, 115_292_150_460_684_698L << 4);
+			long tp10 = sp10 + 10;
+			boolean upin = vbl + out <= sp10 << 2;
+			boolean wpin = (tp10 << 2) + out <= vbr;
+			if(upin != wpin) {
+				return writeDecimal(buf, pos, upin ? sp10 : tp10, k, canonical);
+			}
+		}
+		long t = s + 1;
+		boolean uin = vbl + out <= s << 2;
+		boolean win = (t << 2) + out <= vbr;
+		if(uin != win) {
+			return writeDecimal(buf, pos, uin ? s : t, k + dk, canonical);
+		}
+		long cmp = vb - (s + t << 1);
+		return writeDecimal(buf, pos,
+				cmp < 0 || cmp == 0 && (s & 0x1) == 0 ? s : t, k + dk, canonical);
+	}
+
+	static long rop(long g1, long g0, long cp) {
+		long x1 = Math.multiplyHigh(g0, cp);
+		long y0 = g1 * cp;
+		long y1 = Math.multiplyHigh(g1, cp);
+		long z = (y0 >>> 1) + x1;
+		long vbp = y1 + (z >>> 63);
+		return vbp | (z & MASK_63) + MASK_63 >>> 63;
+	}
+
+	static int writeFloat(char[] buf, int pos, float v) {
+		return writeFloat(buf, pos, v, false);
+	}
+
+	static int writeFloat(char[] buf, int pos, float v, boolean canonical) {
+		int bits = Float.floatToRawIntBits(v);
+		int t = bits & F_T_MASK;
+		int bq = (bits >>> (F_P - 1)) & F_BQ_MASK;
+		if(bq == F_BQ_MASK) {
+			if(canonical) {
+				throw new XJSONException("can not write " + v + " in canonical json");
+			}
+			if(t != 0) {
+				return copy(NAN, buf, pos);
+			}
+			if(bits < 0) {
+				buf[pos++] = '-';
+			}
+			return copy(INFINITY, buf, pos);
+		}
+		if(bq == 0 && t == 0) {
+			if(canonical) {
+				return copy(CANONICAL_ZERO, buf, pos);
+			}
+			if(bits < 0) {
+				buf[pos++] = '-';
+			}
+			return copy(ZERO, buf, pos);
+		}
+		if(bits < 0) {
+			buf[pos++] = '-';
+		}
+		if(bq != 0) {
+			int mq = -F_Q_MIN + 1 - bq;
+			int c = F_C_MIN | t;
+			if(0 < mq && mq < F_P) {
+				int f = c >> mq;
+				if(f << mq == c) {
+					return writeDecimal(buf, pos, f, 0, canonical);
+				}
+			}
+			return floatToDecimal(buf, pos, -mq, c, 0, canonical);
+		}
+		return t < F_C_TINY ?
+				floatToDecimal(buf, pos, F_Q_MIN, 10 * t, -1, canonical) :
+				floatToDecimal(buf, pos, F_Q_MIN, t, 0, canonical);
+	}
+
+	static int floatToDecimal(char[] buf, int pos, int q, int c, int dk, boolean canonical) {
+		long d = floatDecimal(q, c, dk);
+		return writeDecimal(buf, pos, d >>> 32, (int) d, canonical);
+	}
+
+	/**
+	 * the double Double.parseDouble reads back from the float's text,
+	 * computed from the shortest decimal without writing it out
+	 * */
+	static double floatToDouble(float v) {
+		int bits = Float.floatToRawIntBits(v);
+		int t = bits & F_T_MASK;
+		int bq = (bits >>> (F_P - 1)) & F_BQ_MASK;
+		if(bq == F_BQ_MASK || bq == 0 && t == 0) {
+			return v;
+		}
+		long d;
+		if(bq != 0) {
+			int mq = -F_Q_MIN + 1 - bq;
+			int c = F_C_MIN | t;
+			if(0 < mq && mq < F_P && (c >> mq) << mq == c) {
+				return v;
+			}
+			d = floatDecimal(-mq, c, 0);
+		} else {
+			d = t < F_C_TINY ? floatDecimal(F_Q_MIN, 10 * t, -1) : floatDecimal(F_Q_MIN, t, 0);
+		}
+		long f = d >>> 32;
+		int e = (int) d;
+		double r;
+		if(-JSONTreeParser.POW10.length < e && e < JSONTreeParser.POW10.length) {
+			// f and 10^|e| are exact doubles, so the one rounding matches parseDouble
+			r = e < 0 ? f / JSONTreeParser.POW10[-e] : f * JSONTreeParser.POW10[e];
+		} else {
+			char[] text = new char[MAX_CHARS];
+			r = Double.parseDouble(new String(text, 0, writeDecimal(text, 0, f, e, false)));
+		}
+		return bits < 0 ? -r : r;
+	}
+
+	/**
+	 * shortest decimal f * 10^e of the float c * 2^q, packed as f << 32 | e
+	 * */
+	static long floatDecimal(int q, int c, int dk) {
+		int out = c & 0x1;
+		long cb = c << 2;
+		long cbr = cb + 2;
+		long cbl;
+		int k;
+		if(c != F_C_MIN || q == F_Q_MIN) {
+			cbl = cb - 2;
+			k = flog10pow2(q);
+		} else {
+			cbl = cb - 1;
+			k = flog10threeQuartersPow2(q);
+		}
+		int h = q + flog2pow10(-k) + 33;
+		long g = G[(k - K_MIN) << 1] + 1;
+
+		int vb = rop(g, cb << h);
+		int vbl = rop(g, cbl << h);
+		int vbr = rop(g, cbr << h);
+
+		int s = vb >> 2;
+		if(s >= 100) {
+			int sp10 = 10 * (int) (s * 1_717_986_919L >>> 34);
+			int tp10 = sp10 + 10;
+			boolean upin = vbl + out <= sp10 << 2;
+			boolean wpin = (tp10 << 2) + out <= vbr;
+			if(upin != wpin) {
+				return pack(upin ? sp10 : tp10, k);
+			}
+		}
+		int t = s + 1;
+		boolean uin = vbl + out <= s << 2;
+		boolean win = (t << 2) + out <= vbr;
+		if(uin != win) {
+			return pack(uin ? s : t, k + dk);
+		}
+		int cmp = vb - (s + t << 1);
+		return pack(cmp < 0 || cmp == 0 && (s & 0x1) == 0 ? s : t, k + dk);
+	}
+
+	static long pack(int f, int e) {
+		return (long) f << 32 | (e & MASK_32);
+	}
+
+	static int rop(long g, long cp) {
+		long x1 = Math.multiplyHigh(g, cp);
+		long vbp = x1 >>> 31;
+		return (int) (vbp | (x1 & MASK_32) + MASK_32 >>> 32);
+	}
+
+	/**
+	 * writes f * 10^e in the same layout as Double.toString,
+	 * plain between 10^-3 and 10^7, computerized scientific otherwise
+	 * */
+	static int writeDecimal(char[] buf, int pos, long f, int e, boolean canonical) {
+		while(f % 10 == 0) {
+			f /= 10;
+			++e;
+		}
+		if(canonical) {
+			return writeCanonicalDecimal(buf, pos, f, e);
+		}
+		int len = stringSize(f);
+		int point = e + len;
+		if(0 < point && point <= 7) {
+			int end = writeLong(buf, pos, f);
+			if(len <= point) {
+				for(int i = len; i < point; i++) {
+					buf[end++] = '0';
+				}
+				buf[end++] = '.';
+				buf[end++] = '0';
+				return end;
+			}
+			System.arraycopy(buf, pos + point, buf, pos + point + 1, len - point);
+			buf[pos + point] = '.';
+			return end + 1;
+		}
+		if(-3 < point && point <= 0) {
+			buf[pos++] = '0';
+			buf[pos++] = '.';
+			for(int i = point; i < 0; i++) {
+				buf[pos++] = '0';
+			}
+			return writeLong(buf, pos, f);
+		}
+		int end = writeLong(buf, pos + 1, f);
+		buf[pos] = buf[pos + 1];
+		buf[pos + 1] = '.';
+		if(len == 1) {
+			buf[end++] = '0';
+		}
+		buf[end++] = 'E';
+		return writeInt(buf, end, point - 1);
+	}
+
+	/**
+	 * ecmascript Number.prototype.toString layout of f * 10^e,
+	 * f has no trailing zeroes
+	 * */
+	static int writeCanonicalDecimal(char[] buf, int pos, long f, int e) {
+		int len = stringSize(f);
+		int point = e + len;
+		if(len <= point && point <= 21) {
+			pos = writeLong(buf, pos, f);
+			for(int i = len; i < point; i++) {
+				buf[pos++] = '0';
+			}
+			return pos;
+		}
+		if(0 < point && point <= 21) {
+			int end = writeLong(buf, pos, f);
+			System.arraycopy(buf, pos + point, buf, pos + point + 1, len - point);
+			buf[pos + point] = '.';
+			return end + 1;
+		}
+		if(-6 < point && point <= 0) {
+			buf[pos++] = '0';
+			buf[pos++] = '.';
+			for(int i = point; i < 0; i++) {
+				buf[pos++] = '0';
+			}
+			return writeLong(buf, pos, f);
+		}
+		int end;
+		if(len == 1) {
+			end = writeLong(buf, pos, f);
+		} else {
+			end = writeLong(buf, pos + 1, f);
+			buf[pos] = buf[pos + 1];
+			buf[pos + 1] = '.';
+		}
+		buf[end++] = 'e';
+		if(point - 1 > 0) {
+			buf[end++] = '+';
+		}
+		return writeInt(buf, end, point - 1);
+	}
+
+	static int copy(char[] src, char[] buf, int pos) {
+		System.arraycopy(src, 0, buf, pos, src.length);
+		return pos + src.length;
+	}
+
+	static void writeBigInteger(JSONWriter out, BigInteger v) {
+		if(v.bitLength() < 64) {
+			out.writeLong(v.longValue());
+			return;
+		}
+		out.append(v.toString(10));
+	}
+
+	/**
+	 * same output as BigDecimal.toPlainString, without the intermediate
+	 * string when the unscaled value fits in a long
+	 * */
+	static void writeBigDecimal(JSONWriter out, BigDecimal v) {
+		if(out.canonical) {
+			writeCanonicalBigDecimal(out, v);
+			return;
+		}
+		int scale = v.scale();
+		BigInteger unscaled = v.unscaledValue();
+		if(unscaled.bitLength() >= 63 || scale > MAX_CHARS || scale < -MAX_CHARS
+				|| unscaled.signum() == 0) {
+			out.append(v.toPlainString());
+			return;
+		}
+		long u = unscaled.longValue();
+		out.ensureCapacity(MAX_CHARS * 2);
+		char[] buf = out.buf;
+		int pos = out.count;
+		if(u < 0) {
+			buf[pos++] = '-';
+			u = -u;
+		}
+		if(scale <= 0) {
+			pos = writeLong(buf, pos, u);
+			for(int i = scale; i < 0; i++) {
+				buf[pos++] = '0';
+			}
+			out.count = pos;
+			return;
+		}
+		int len = stringSize(u);
+		if(len > scale) {
+			int end = writeLong(buf, pos, u);
+			int point = pos + len - scale;
+			System.arraycopy(buf, point, buf, point + 1, scale);
+			buf[point] = '.';
+			out.count = end + 1;
+			return;
+		}
+		buf[pos++] = '0';
+		buf[pos++] = '.';
+		for(int i = len; i < scale; i++) {
+			buf[pos++] = '0';
+		}
+		out.count = writeLong(buf, pos, u);
+	}
+
+	/**
+	 * trailing zeroes are dropped so 1.50 and 1.5 come out the same,
+	 * values too wide for a long go through double like rfc 8785 does
+	 * */
+	static void writeCanonicalBigDecimal(JSONWriter out, BigDecimal v) {
+		if(v.signum() == 0) {
+			out.append('0');
+			return;
+		}
+		BigDecimal stripped = v.stripTrailingZeros();
+		BigInteger unscaled = stripped.unscaledValue();
+		if(unscaled.bitLength() >= 63) {
+			out.writeDouble(v.doubleValue());
+			return;
+		}
+		long u = unscaled.longValue();
+		out.ensureCapacity(MAX_CHARS * 2);
+		int pos = out.count;
+		if(u < 0) {
+			out.buf[pos++] = '-';
+			u = -u;
+		}
+		out.count = writeCanonicalDecimal(out.buf, pos, u, -stripped.scale());
+	}
+}
@@ -0,0 +1,150 @@
+package json.xjson;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * encodes the elements of large arrays and collections in chunks on a
+ * fork-join pool, each chunk into its own leased writer, and appends
+ * the chunks in order. elements are written exactly as the serial loops of
+ * JSONEncoder write them, so the output does not change.
+ * with a sink the chunks are encoded a wave at a time, at most a few
+ * chunks per worker are held before they are handed on.
+ * */
+class JSONParallel {
+
+	static final int MIN_CHUNK = 256;
+	static final int MAX_STREAMED_CHUNK = 4096;
+
+	/**
+	 * 0 keeps every encode on the calling thread
+	 * */
+	static int THRESHOLD = 0;
+	static ForkJoinPool POOL = ForkJoinPool.commonPool();
+
+	static boolean applies(int size) {
+		return THRESHOLD > 0 && size >= THRESHOLD;
+	}
+
+	static final class Chunk extends RecursiveAction {
+		static final long serialVersionUID = 1L;
+
+		final JSONWriter parent;
+		final Object[] items;
+		final int from;
+		final int to;
+		final int tabCount;
+		final boolean quoteStrings;
+		JSONWriter out;
+
+		Chunk(JSONWriter parent, Object[] items, int from, int to, int tabCount, boolean quoteStrings) {
+			this.parent = parent;
+			this.items = items;
+			this.from = from;
+			this.to = to;
+			this.tabCount = tabCount;
+			this.quoteStrings = quoteStrings;
+		}
+
+		@Override
+		protected void compute() {
+			JSONWriter out = JSONWriter.lease(JSONWriter.DEFAULT_CAPACITY);
+			out.beautify = parent.beautify;
+			out.sortKeys = parent.sortKeys;
+			out.canonical = parent.canonical;
+			out.view = parent.view;
+			out.omit = parent.omit;
+			boolean done = false;
+			try {
+				for(int i = from; i < to; i++) {
+					if(i > from) {
+						out.append(JSONEncoder.COMMA);
+						if(out.beautify) {
+							out.append(JSONEncoder.ENTER);
+						}
+					}
+					if(out.beautify) {
+						JSONEncoder.formatIndent(out, tabCount + 1);
+					}
+					Object o = items[i];
+					if(quoteStrings && o instanceof String) {
+						out.append(JSONEncoder.QUOTE);
+						JSONEncoder.formatString(out, (String) o);
+						out.append(JSONEncoder.QUOTE);
+					} else {
+						JSONEncoder.formatObject(out, o, tabCount + 1, false);
+					}
+				}
+				this.out = out;
+				done = true;
+			} finally {
+				if(!done) {
+					out.release();
+				}
+			}
+		}
+	}
+
+	/**
+	 * the elements between the brackets, quoteStrings as in
+	 * formatCollection, otherwise as formatArray's Object[] loop
+	 * */
+	static void formatElements(JSONWriter out, Object[] items, int tabCount, boolean quoteStrings) {
+		int n = items.length;
+		int workers = POOL.getParallelism();
+		int size = Math.max(MIN_CHUNK, n / (workers * 4));
+		int wave = Integer.MAX_VALUE;
+		if(out.sink != null) {
+			size = Math.min(size, MAX_STREAMED_CHUNK);
+			wave = workers * 2;
+		}
+		int chunks = (n + size - 1) / size;
+		for(int first = 0; first < chunks; first += wave) {
+			int count = Math.min(wave, chunks - first);
+			Chunk[] tasks = new Chunk[count];
+			for(int i = 0; i < count; i++) {
+				int from = (first + i) * size;
+				tasks[i] = new Chunk(out, items, from, Math.min(n, from + size), tabCount, quoteStrings);
+			}
+			try {
+				run(tasks);
+				for(int i = 0; i < count; i++) {
+					if(first + i > 0) {
+						out.append(JSONEncoder.COMMA);
+						if(out.beautify) {
+							out.append(JSONEncoder.ENTER);
+						}
+					}
+					JSONWriter w = tasks[i].out;
+					out.append(w.buf, 0, w.count);
+				}
+			} finally {
+				for(Chunk c: tasks) {
+					if(c.out != null) {
+						c.out.release();
+						c.out = null;
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * a nested collection met inside a chunk forks on the same pool
+	 * */
+	static void run(Chunk[] tasks) {
+		if(ForkJoinTask.inForkJoinPool()) {
+			ForkJoinTask.invokeAll(tasks);
+			return;
+		}
+		POOL.invoke(new RecursiveAction() {
+			static final long serialVersionUID = 1L;
+
+			@Override
+			protected void compute() {
+				invokeAll(tasks);
+			}
+		});
+	}
+}
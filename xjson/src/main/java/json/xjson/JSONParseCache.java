@@ -0,0 +1,218 @@
+package json.xjson;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * results of parseCompact, parseCompactList and of parse(String, Class)
+ * for classes marked with setImmutable, looked up by the json text.
+ * only results nobody can modify are cached, they are shared between
+ * all callers that parse the same text.
+ * entries are spread over segments by hash, each an lru map under its
+ * own lock and weighed by the chars of its text. a text is admitted on
+ * its second miss, so payloads seen once never evict repeated ones.
+ * */
+class JSONParseCache {
+
+	static final int SEGMENTS = 16;
+	static final int SEEN_SLOTS = 1024;
+	static final int ENTRY_OVERHEAD = 64;
+
+	static volatile Segment[] segments;
+
+	static final LongAdder HITS = new LongAdder();
+	static final LongAdder MISSES = new LongAdder();
+	static final LongAdder EVICTIONS = new LongAdder();
+
+	static final class Key {
+		final Class<?> type;
+		final String json;
+		final int mode;
+		final int hash;
+
+		Key(Class<?> type, String json, int mode) {
+			this.type = type;
+			this.json = json;
+			this.mode = mode;
+			int h = json.hashCode() * 31 + type.hashCode() + mode;
+			this.hash = h ^ (h >>> 16);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if(!(obj instanceof Key)) {
+				return false;
+			}
+			Key k = (Key) obj;
+			return hash == k.hash && type == k.type && mode == k.mode && json.equals(k.json);
+		}
+	}
+
+	@SuppressWarnings("serial")
+	static final class Segment extends LinkedHashMap<Key, Object> {
+		final long budget;
+		final int[] seen = new int[SEEN_SLOTS];
+		long weight;
+
+		Segment(long budget) {
+			super(16, 0.75f, true);
+			this.budget = budget;
+		}
+
+		synchronized Object find(Key key) {
+			return get(key);
+		}
+
+		synchronized void add(Key key, Object value) {
+			// the low bits already chose the segment
+			int slot = (key.hash >>> 4) & (SEEN_SLOTS - 1);
+			if(seen[slot] != key.hash) {
+				seen[slot] = key.hash;
+				return;
+			}
+			long w = cost(key);
+			if(w > budget || put(key, value) != null) {
+				return;
+			}
+			weight += w;
+			Iterator<Key> it = keySet().iterator();
+			while(weight > budget && it.hasNext()) {
+				Key eldest = it.next();
+				if(eldest == key) {
+					break;
+				}
+				it.remove();
+				weight -= cost(eldest);
+				EVICTIONS.increment();
+			}
+		}
+
+		synchronized long weight() {
+			return weight;
+		}
+
+		synchronized int count() {
+			return size();
+		}
+	}
+
+	static long cost(Key key) {
+		return key.json.length() + ENTRY_OVERHEAD;
+	}
+
+	/**
+	 * maxChars is the total text length kept, 0 turns the cache off
+	 * */
+	static synchronized void configure(long maxChars) {
+		if(maxChars <= 0) {
+			segments = null;
+			return;
+		}
+		Segment[] s = new Segment[SEGMENTS];
+		for(int i = 0; i < SEGMENTS; i++) {
+			s[i] = new Segment(Math.max(1, maxChars / SEGMENTS));
+		}
+		segments = s;
+		HITS.reset();
+		MISSES.reset();
+		EVICTIONS.reset();
+	}
+
+	/**
+	 * parser flags that change the result of the same text
+	 * */
+	static int mode() {
+		return (JSONTreeParser.LAZY_STRINGS ? 1 : 0) | (JSONReflect.strictJsonMode ? 2 : 0) | 
+				(JSONReflect.strictClassMode ? 4 : 0);
+	}
+
+	static Object lookup(Segment[] s, Key key) {
+		Object value = s[key.hash & (SEGMENTS - 1)].find(key);
+		if(value == null) {
+			MISSES.increment();
+		} else {
+			HITS.increment();
+		}
+		return value;
+	}
+
+	static void store(Segment[] s, Key key, Object value) {
+		s[key.hash & (SEGMENTS - 1)].add(key, value);
+	}
+
+	static XJSONObject parseObject(String json) {
+		Segment[] s = segments;
+		if(s == null) {
+			return JSONTreeParser.parseObject(json);
+		}
+		Key key = new Key(XJSONObject.class, json, mode());
+		Object value = lookup(s, key);
+		if(value == null) {
+			value = JSONTreeParser.parseObject(json);
+			store(s, key, value);
+		}
+		return (XJSONObject) value;
+	}
+
+	static XJSONArray parseArray(String json) {
+		Segment[] s = segments;
+		if(s == null) {
+			return JSONTreeParser.parseArray(json);
+		}
+		Key key = new Key(XJSONArray.class, json, mode());
+		Object value = lookup(s, key);
+		if(value == null) {
+			value = JSONTreeParser.parseArray(json);
+			store(s, key, value);
+		}
+		return (XJSONArray) value;
+	}
+
+	static <T> T parseClass(String json, Class<T> clazz) {
+		Segment[] s = segments;
+		if(s == null || !JSONValueCache.IMMUTABLE_CLASSES.contains(clazz)) {
+			return JSONDecoder.parseToClass(json, clazz);
+		}
+		Key key = new Key(clazz, json, mode());
+		Object value = lookup(s, key);
+		if(value == null) {
+			value = JSONDecoder.parseToClass(json, clazz);
+			store(s, key, value);
+		}
+		return clazz.cast(value);
+	}
+
+	static XJSONCacheStats stats() {
+		long entries = 0, weight = 0;
+		Segment[] s = segments;
+		if(s != null) {
+			for(Segment seg : s) {
+				entries += seg.count();
+				weight += seg.weight();
+			}
+		}
+		return new XJSONCacheStats(HITS.sum(), MISSES.sum(), EVICTIONS.sum(), entries, weight);
+	}
+
+	/**
+	 * also called when a reader is registered, cached classes may have
+	 * been bound without it
+	 * */
+	static void clear() {
+		Segment[] s = segments;
+		if(s != null) {
+			for(Segment seg : s) {
+				synchronized(seg) {
+					seg.clear();
+					seg.weight = 0;
+				}
+			}
+		}
+	}
+}
@@ -12,6 +12,7 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
 import java.util.LinkedHashMap;
@@ -23,6 +24,7 @@ import java.util.Queue;
 import java.util.Set;
 import java.util.TreeSet;
 import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
 
 class JSONReflect {
@@ -36,9 +38,6 @@ class JSONReflect {
 	static final String FLOAT_TYPE = "float";
 	static final String DOUBLE_TYPE = "double";
 	
-	static final ConcurrentHashMap<Class<?>, XJSONDeserializer> CODER_MAP = 
-			new ConcurrentHashMap<>();
-
 	static final DateFormat DEFAULT_DATE_FORMAT = 
 			new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
 	static final DateTimeFormatter DEFAULT_TIME_FORMAT =
@@ -50,24 +49,11 @@ class JSONReflect {
 	
 	static final String INNER_CLASS_FIELD = "this$";
 	
-	static {
-		/**
-		 * popular class serializer
-		 * */
-		CODER_MAP.put(Boolean.class, (String obj) -> {return Boolean.parseBoolean(obj);});
-		CODER_MAP.put(Byte.class, (String obj) -> {return Byte.parseByte(obj);});
-		CODER_MAP.put(Character.class, (String obj) -> {
-			if(obj.length() != 1) {
-				throw new XJSONException("unknown Charater value " + obj);
-			}
-			return obj.charAt(0);
-		});
-		CODER_MAP.put(Short.class, (String obj) -> {return Short.parseShort(obj);});
-		CODER_MAP.put(Integer.class, (String obj) -> {return Integer.parseInt(obj);});
-		CODER_MAP.put(Long.class, (String obj) -> {return Long.parseLong(obj);});
-		CODER_MAP.put(Float.class, (String obj) -> {return Float.parseFloat(obj);});
-		CODER_MAP.put(Double.class, (String obj) -> {return Double.parseDouble(obj);});
-	}
+	/**
+	 * instance fields bound from json members, already accessible
+	 * */
+	static final ConcurrentHashMap<Class<?>, Field[]> BOUND_FIELDS = 
+			new ConcurrentHashMap<>();
 	
 	@SuppressWarnings("unchecked")
 	static <T> LinkedList<T> reflectOneList(LinkedList<Object> obj, Class<T> clazz) 
@@ -86,6 +72,26 @@ class JSONReflect {
 	}
 	
 	
+	/**
+	 * binds any object to type through the tree its text would parse to,
+	 * values already of the right type are returned as they are
+	 * */
+	static Object convert(Object data, Type type) throws XJSONException {
+		if(data == null || (type instanceof Class && ((Class<?>) type).isInstance(data))) {
+			return data;
+		}
+		Object tree = JSONEncoder.toTree(data, 0);
+		if(type instanceof Class && ((Class<?>) type).isInstance(tree)) {
+			return tree;
+		}
+		Object ret = fromJavaType(type, tree);
+		if(ret == null) {
+			throw new XJSONException("can not convert " + data.getClass().getName() + 
+					" to " + type.getTypeName());
+		}
+		return ret;
+	}
+	
 	static void reflectToField(Field f, Object classObj, Object jsonData) 
 			throws Exception {
 		Type type = f.getGenericType();
@@ -103,30 +109,12 @@ class JSONReflect {
 			throws XJSONException {
 		if(javaType.getClass().equals(Class.class)) {
 			Class<?> cls = (Class<?>) javaType;
-			if(CODER_MAP.contains(cls)) {
-				String data = null;
-				if(val instanceof String) {
-					data = (String) val;
-				}
-				if(val instanceof Byte) {
-					data = String.valueOf((byte) val);
-				}
-				if(val instanceof Character) {
-					data = String.valueOf((char) val);
-				}
-				if(val instanceof Integer) {
-					data = String.valueOf((int) val);
-				}
-				if(val instanceof Long) {
-					data = String.valueOf((long) val);
-				}
-				if(val instanceof Double) {
-					data = String.valueOf((double) val);
-				}
-				if(data == null) {
-					throw new XJSONException("unknown value type " + val.getClass().getName());
-				}
-				return CODER_MAP.get(cls).deserialize(data);
+			XJSONCodec<Object> codec = JSONCodecs.reader(cls);
+			if(codec instanceof JSONCodecs.Scalar) {
+				return ((JSONCodecs.Scalar) codec).convert.convert(val);
+			}
+			if(codec != null) {
+				return codec.read(new XJSONReader(val));
 			}
 			if(cls.isPrimitive()) {
 				return reflectToPrimitive(cls, val);
@@ -156,34 +144,19 @@ class JSONReflect {
 			if(cls.isInterface()) {
 				instance = new LinkedList<>();
 			} else {
-				try {
-					instance = (Collection<Object>) cls.newInstance();
-				} catch(Exception ignore) {
-					throw new XJSONException("can not construct class '" +
-							cls.getName() + "'");
-				}
+				instance = (Collection<Object>) JSONCreator.construct(cls);
 			}
 		} else if(Set.class.isAssignableFrom(cls)) {
 			if(cls.isInterface()) {
 				instance = new LinkedHashSet<>();
 			} else {
-				try {
-					instance = (Collection<Object>) cls.newInstance();
-				} catch(Exception ignore) {
-					throw new XJSONException("can not construct class '" +
-							cls.getName() + "'");
-				}
+				instance = (Collection<Object>) JSONCreator.construct(cls);
 			}
 		} else if(Queue.class.isAssignableFrom(cls)) {
 			if(cls.isInterface()) {
 				instance = new ArrayBlockingQueue<>(val.size());
 			} else {
-				try {
-					instance = (Collection<Object>) cls.newInstance();
-				} catch(Exception ignore) {
-					throw new XJSONException("can not construct class '" +
-							cls.getName() + "'");
-				}
+				instance = (Collection<Object>) JSONCreator.construct(cls);
 			}
 		} else {
 			throw new XJSONException("unknown collection like type '" +
@@ -209,12 +182,7 @@ class JSONReflect {
 		if(cls.isInterface()) {
 			instance = new LinkedHashMap<>();
 		} else {
-			try {
-				instance = (Map<Object, Object>) cls.newInstance();
-			} catch(Exception ignore) {
-				throw new XJSONException("can not construct class '" +
-						cls.getName() + "'");
-			}
+			instance = (Map<Object, Object>) JSONCreator.construct(cls);
 		}
 		Type[] genericTypes = ((ParameterizedType) javaType).getActualTypeArguments();
 		if(genericTypes == null || genericTypes.length != 2) {
@@ -239,18 +207,15 @@ class JSONReflect {
 		} else if(CHAR_TYPE.equals(cls.getName())) {
 			return (char) val;
 		} else if(SHORT_TYPE.equals(cls.getName())) {
-			return (short) val;
+			return ((Number) val).shortValue();
 		} else if(INT_TYPE.equals(cls.getName())) {
 			return (int) val;
 		} else if(LONG_TYPE.equals(cls.getName())) {
-			return (long) val;
+			return ((Number) val).longValue();
 		} else if(FLOAT_TYPE.equals(cls.getName())) {
-			if(val instanceof Double) {
-				return ((Double) val).floatValue();
-			}
-			return (float) val;
+			return ((Number) val).floatValue();
 		} else if(DOUBLE_TYPE.equals(cls.getName())) {
-			return (double) val;
+			return ((Number) val).doubleValue();
 		}
 		throw new XJSONException("unknown primitive type '" 
 				+ cls.getName() + "'");
@@ -259,6 +224,9 @@ class JSONReflect {
 	@SuppressWarnings("unchecked")
 	static Object reflectToPopularClass(Class<?> cls,  Object val) 
 			throws XJSONException {
+		if(cls.isInstance(val)) {
+			return val;
+		}
 		if(Date.class.isAssignableFrom(cls)) {
 			try {
 				return DEFAULT_DATE_FORMAT.parse((String)val);
@@ -310,34 +278,21 @@ class JSONReflect {
 	
 	static Object reflectUnknownClass(Class<?> cls, LinkedHashMap<String, Object> val) 
 			throws XJSONException {
-		Object instance;
-		try {
-			instance = cls.newInstance();
-		} catch (Exception e) {
-			throw new XJSONException(
-					"no arguments constructor is required with class '" 
-					+ cls.getName() + "'"); 
+		JSONCreator creator = JSONCreator.of(cls);
+		if(creator != null) {
+			return creator.create(cls, val);
 		}
-		Field[] fields = cls.getDeclaredFields();
+		Object instance = JSONCreator.construct(cls);
+		Field[] fields = boundFields(cls);
 		TreeSet<String> fieldNameSet = null;
 		if(strictJsonMode) {
 			fieldNameSet = new TreeSet<>();
 		}
 		
 		for(Field f: fields) {
-			if(f.getName().startsWith(INNER_CLASS_FIELD)) {
-				continue;
-			}
-			if(Modifier.isStatic(f.getModifiers())) {
-				continue;
-			}
-			if(Modifier.isTransient(f.getModifiers())) {
-				continue;
-			}
 			Object fieldVal = val.getOrDefault(f.getName(), null);
 			if(fieldVal != null) {
 				try {
-					f.setAccessible(true);
 					f.set(instance, fromJavaType(f.getGenericType(), fieldVal));
 				} catch(Exception e) {
 					throw new XJSONException(
@@ -363,4 +318,153 @@ class JSONReflect {
 		}
 		return instance;
 	}
+	
+	static Field[] boundFields(Class<?> cls) {
+		Field[] fields = BOUND_FIELDS.get(cls);
+		if(fields != null) {
+			return fields;
+		}
+		ArrayList<Field> list = new ArrayList<>();
+		for(Field f: cls.getDeclaredFields()) {
+			if(f.getName().startsWith(INNER_CLASS_FIELD)) {
+				continue;
+			}
+			if(Modifier.isStatic(f.getModifiers())) {
+				continue;
+			}
+			if(Modifier.isTransient(f.getModifiers())) {
+				continue;
+			}
+			f.setAccessible(true);
+			list.add(f);
+		}
+		fields = list.toArray(new Field[0]);
+		BOUND_FIELDS.putIfAbsent(cls, fields);
+		return fields;
+	}
+	
+	/**
+	 * overwrites the fields of target in place. nested objects already
+	 * in a field are updated instead of replaced, collections and maps
+	 * are cleared and refilled. with keepAbsent fields without a member
+	 * keep their value, otherwise they get the value of a new instance
+	 * of the class, or null and zero when it has no such constructor
+	 * */
+	static void reflectInto(LinkedHashMap<String, Object> val, Object target, 
+			boolean keepAbsent) throws XJSONException {
+		Class<?> cls = target.getClass();
+		if(JSONCreator.of(cls) != null) {
+			throw new XJSONException("class '" + cls.getName() + 
+					"' is bound through its creator and can not be updated");
+		}
+		TreeSet<String> fieldNameSet = null;
+		if(strictJsonMode) {
+			fieldNameSet = new TreeSet<>();
+		}
+		Object defaults = null;
+		boolean constructed = false;
+		for(Field f: boundFields(cls)) {
+			if(strictJsonMode) {
+				fieldNameSet.add(f.getName());
+			}
+			if(keepAbsent && !val.containsKey(f.getName())) {
+				continue;
+			}
+			Object fieldVal = val.get(f.getName());
+			if(fieldVal == null && strictClassMode) {
+				throw new XJSONException(
+						XJSONException.getErrorMsg(f.getName(), cls, true));
+			}
+			try {
+				if(fieldVal == null) {
+					if(!constructed) {
+						defaults = newDefaults(cls);
+						constructed = true;
+					}
+					f.set(target, defaults == null ? 
+							JSONCreator.zero(f.getType()) : f.get(defaults));
+					continue;
+				}
+				f.set(target, updateValue(f.getGenericType(), f.get(target), 
+						fieldVal, keepAbsent));
+			} catch(XJSONException e) {
+				throw e;
+			} catch(Exception e) {
+				throw new XJSONException(XJSONException.getErrorMsg(f, fieldVal));
+			}
+		}
+		if(strictJsonMode) {
+			for(String k: val.keySet()) {
+				if(!fieldNameSet.contains(k)) {
+					throw new XJSONException(
+							XJSONException.getErrorMsg(k, cls, false));
+				}
+			}
+		}
+	}
+	
+	/**
+	 * the instance a fresh parse starts from, null without a no
+	 * arguments constructor
+	 * */
+	static Object newDefaults(Class<?> cls) {
+		try {
+			return JSONCreator.construct(cls);
+		} catch(XJSONException e) {
+			return null;
+		}
+	}
+	
+	@SuppressWarnings("unchecked")
+	static Object updateValue(Type type, Object current, Object val, boolean keepAbsent) 
+			throws XJSONException {
+		if(current == null) {
+			return fromJavaType(type, val);
+		}
+		if(type instanceof Class && val instanceof LinkedHashMap && 
+				!(current instanceof Map) && !JSONCodecs.READERS.containsKey(current.getClass()) &&
+				JSONCreator.of(current.getClass()) == null) {
+			reflectInto((LinkedHashMap<String, Object>) val, current, keepAbsent);
+			return current;
+		}
+		if(!(type instanceof ParameterizedType)) {
+			return fromJavaType(type, val);
+		}
+		Type[] genericTypes = ((ParameterizedType) type).getActualTypeArguments();
+		if(current instanceof Collection && val instanceof LinkedList && genericTypes.length == 1) {
+			Collection<Object> c = (Collection<Object>) current;
+			LinkedList<Object> list = (LinkedList<Object>) val;
+			/**
+			 * fixed size, unmodifiable and full bounded collections are
+			 * replaced like a fresh parse would do
+			 * */
+			try {
+				c.clear();
+			} catch(UnsupportedOperationException e) {
+				return fromJavaType(type, val);
+			}
+			if(c instanceof BlockingQueue && 
+					((BlockingQueue<Object>) c).remainingCapacity() < list.size()) {
+				return fromJavaType(type, val);
+			}
+			for(Object o: list) {
+				c.add(fromJavaType(genericTypes[0], o));
+			}
+			return c;
+		}
+		if(current instanceof Map && val instanceof LinkedHashMap && genericTypes.length == 2) {
+			Map<Object, Object> m = (Map<Object, Object>) current;
+			try {
+				m.clear();
+			} catch(UnsupportedOperationException e) {
+				return fromJavaType(type, val);
+			}
+			for(Map.Entry<String, Object> entry: ((LinkedHashMap<String, Object>) val).entrySet()) {
+				m.put(fromJavaType(genericTypes[0], entry.getKey()),
+						fromJavaType(genericTypes[1], entry.getValue()));
+			}
+			return m;
+		}
+		return fromJavaType(type, val);
+	}
 }
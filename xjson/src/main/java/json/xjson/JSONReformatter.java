@@ -0,0 +1,265 @@
+package json.xjson;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.Arrays;
+
+/**
+ * rewrites the whitespace of json text while it streams through.
+ * strings, numbers and literals are copied as they are, so precision,
+ * escapes and key order never change, and only the current nesting is
+ * kept in memory.
+ * bytes are read and written one char per byte, the structural chars
+ * are ascii and everything else is copied, so utf-8 passes untouched.
+ * brackets are checked to match, the rest of the grammar is not.
+ * */
+class JSONReformatter {
+
+	static final int BUFFER_SIZE = 8192;
+
+	final Reader reader;
+	final InputStream input;
+	final Writer writer;
+	final OutputStream output;
+	final String indent;
+	final boolean spaceAfterColon;
+	final char[] newline;
+
+	final char[] in = new char[BUFFER_SIZE];
+	final byte[] bytesIn;
+	int pos;
+	int limit;
+
+	final char[] out = new char[BUFFER_SIZE];
+	final byte[] bytesOut;
+	int count;
+
+	/**
+	 * true for an object, grown with the nesting depth
+	 * */
+	boolean[] objects = new boolean[32];
+	int depth;
+
+	JSONReformatter(Reader reader, InputStream input, Writer writer, OutputStream output, XJSONFormat format) {
+		this.reader = reader;
+		this.input = input;
+		this.writer = writer;
+		this.output = output;
+		this.indent = format.indent;
+		this.spaceAfterColon = format.spaceAfterColon;
+		this.newline = format.lineSeparator.toCharArray();
+		this.bytesIn = input == null ? null : new byte[BUFFER_SIZE];
+		this.bytesOut = output == null ? null : new byte[BUFFER_SIZE];
+	}
+
+	static void reformat(Reader in, Writer out, XJSONFormat format) {
+		new JSONReformatter(in, null, out, null, format).run();
+	}
+
+	static void reformat(InputStream in, OutputStream out, XJSONFormat format) {
+		new JSONReformatter(null, in, null, out, format).run();
+	}
+
+	void run() {
+		try {
+			transform();
+			flush();
+			if(writer != null) {
+				writer.flush();
+			} else {
+				output.flush();
+			}
+		} catch (IOException e) {
+			throw new XJSONException(e);
+		}
+	}
+
+	int read() throws IOException {
+		if(pos == limit) {
+			if(reader != null) {
+				limit = reader.read(in, 0, in.length);
+			} else {
+				limit = input.read(bytesIn, 0, bytesIn.length);
+				for(int i = 0; i < limit; i++) {
+					in[i] = (char) (bytesIn[i] & 0xff);
+				}
+			}
+			pos = 0;
+			if(limit <= 0) {
+				limit = 0;
+				return -1;
+			}
+		}
+		return in[pos++];
+	}
+
+	int readSignificant() throws IOException {
+		int c;
+		do {
+			c = read();
+		} while(c == ' ' || c == '\n' || c == '\r' || c == '\t');
+		return c;
+	}
+
+	void write(char c) throws IOException {
+		if(count == out.length) {
+			flush();
+		}
+		out[count++] = c;
+	}
+
+	void write(char[] chars) throws IOException {
+		for(char c: chars) {
+			write(c);
+		}
+	}
+
+	void flush() throws IOException {
+		if(count == 0) {
+			return;
+		}
+		if(writer != null) {
+			writer.write(out, 0, count);
+		} else {
+			for(int i = 0; i < count; i++) {
+				bytesOut[i] = (byte) out[i];
+			}
+			output.write(bytesOut, 0, count);
+		}
+		count = 0;
+	}
+
+	void line(int level) throws IOException {
+		if(indent == null) {
+			return;
+		}
+		write(newline);
+		for(int i = 0; i < level; i++) {
+			for(int j = 0; j < indent.length(); j++) {
+				write(indent.charAt(j));
+			}
+		}
+	}
+
+	void transform() throws IOException {
+		boolean values = false;
+		int c = readSignificant();
+		while(c >= 0) {
+			switch(c) {
+			case '{':
+			case '[': {
+				if(depth == 0 && values) {
+					write(newline);
+				}
+				values = true;
+				write((char) c);
+				int next = readSignificant();
+				char close = c == '{' ? '}' : ']';
+				if(next == close) {
+					write(close);
+					break;
+				}
+				push(c == '{');
+				line(depth);
+				c = next;
+				continue;
+			}
+			case '}':
+			case ']':
+				pop(c == '}');
+				line(depth);
+				write((char) c);
+				break;
+			case ',':
+				check();
+				write(',');
+				line(depth);
+				break;
+			case ':':
+				check();
+				write(':');
+				if(spaceAfterColon) {
+					write(' ');
+				}
+				break;
+			case '"':
+				if(depth == 0 && values) {
+					write(newline);
+				}
+				values = true;
+				copyString();
+				break;
+			default:
+				if(depth == 0 && values) {
+					write(newline);
+				}
+				values = true;
+				c = copyLiteral(c);
+				continue;
+			}
+			c = readSignificant();
+		}
+		if(depth != 0) {
+			throw new XJSONException("json text ended inside " + (objects[depth] ? "an object." : "an array."));
+		}
+	}
+
+	void copyString() throws IOException {
+		write('"');
+		for(;;) {
+			int c = read();
+			if(c < 0) {
+				throw new XJSONException("json text ended inside a string.");
+			}
+			write((char) c);
+			if(c == '\\') {
+				c = read();
+				if(c < 0) {
+					throw new XJSONException("json text ended inside a string.");
+				}
+				write((char) c);
+			} else if(c == '"') {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * numbers, true, false and null up to the next structural char or
+	 * whitespace, which is returned
+	 * */
+	int copyLiteral(int c) throws IOException {
+		do {
+			write((char) c);
+			c = read();
+		} while(c >= 0 && c != ',' && c != ':' && c != '}' && c != ']' && c != '{' && c != '[' && 
+				c != '"' && c != ' ' && c != '\n' && c != '\r' && c != '\t');
+		if(c == ' ' || c == '\n' || c == '\r' || c == '\t') {
+			c = readSignificant();
+		}
+		return c;
+	}
+
+	void push(boolean object) {
+		if(++depth == objects.length) {
+			objects = Arrays.copyOf(objects, depth << 1);
+		}
+		objects[depth] = object;
+	}
+
+	void pop(boolean object) {
+		if(depth == 0 || objects[depth] != object) {
+			throw new XJSONException("unexpected '" + (object ? '}' : ']') + "' in json text.");
+		}
+		depth--;
+	}
+
+	void check() {
+		if(depth == 0) {
+			throw new XJSONException("separator outside of an object or array in json text.");
+		}
+	}
+}
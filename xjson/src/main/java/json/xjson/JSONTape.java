@@ -0,0 +1,283 @@
+package json.xjson;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+
+/**
+ * binary tape of one document, little endian. a value is a tag byte
+ * followed by its payload, containers carry their member count and
+ * the byte size of their body so readers can step over them:
+ * 
+ *   INT int | LONG long | DOUBLE long bits | CHAR char
+ *   STRING int byte length, utf-8 bytes
+ *   OBJECT int count, int body size, count x (key string, value)
+ *   ARRAY  int count, int body size, count x value
+ * 
+ * keys are written like STRING payloads without the tag. the writer
+ * side fills a reused heap buffer from a compact tree, the reader side
+ * works on absolute offsets so one ByteBuffer can be read by many threads.
+ * */
+class JSONTape {
+
+	static final byte NULL = 0;
+	static final byte TRUE = 1;
+	static final byte FALSE = 2;
+	static final byte INT = 3;
+	static final byte LONG = 4;
+	static final byte DOUBLE = 5;
+	static final byte CHAR = 6;
+	static final byte STRING = 7;
+	static final byte OBJECT = 8;
+	static final byte ARRAY = 9;
+
+	/**
+	 * tag, count and body size in front of a container body
+	 * */
+	static final int HEADER = 9;
+
+	byte[] buf = new byte[256];
+	int len;
+
+	void reset() {
+		len = 0;
+	}
+
+	void ensure(int extra) {
+		if(len + extra > buf.length) {
+			byte[] b = new byte[Math.max(buf.length << 1, len + extra)];
+			System.arraycopy(buf, 0, b, 0, len);
+			buf = b;
+		}
+	}
+
+	void putInt(int at, int v) {
+		buf[at] = (byte) v;
+		buf[at + 1] = (byte) (v >> 8);
+		buf[at + 2] = (byte) (v >> 16);
+		buf[at + 3] = (byte) (v >> 24);
+	}
+
+	void writeTag(byte tag) {
+		ensure(1);
+		buf[len++] = tag;
+	}
+
+	void writeInt(byte tag, int v) {
+		ensure(5);
+		buf[len] = tag;
+		putInt(len + 1, v);
+		len += 5;
+	}
+
+	void writeLong(byte tag, long v) {
+		ensure(9);
+		buf[len] = tag;
+		putInt(len + 1, (int) v);
+		putInt(len + 5, (int) (v >>> 32));
+		len += 9;
+	}
+
+	void writeValue(Object v, long[] prims, int i) {
+		if(v == XJSONObject.INT_SLOT) {
+			writeInt(INT, (int) prims[i]);
+		} else if(v == XJSONObject.LONG_SLOT) {
+			writeLong(LONG, prims[i]);
+		} else if(v == XJSONObject.DOUBLE_SLOT) {
+			writeLong(DOUBLE, prims[i]);
+		} else if(v == null) {
+			writeTag(NULL);
+		} else if(v instanceof Boolean) {
+			writeTag((Boolean) v ? TRUE : FALSE);
+		} else if(v instanceof Character) {
+			ensure(3);
+			buf[len] = CHAR;
+			buf[len + 1] = (byte) (char) v;
+			buf[len + 2] = (byte) ((char) v >> 8);
+			len += 3;
+		} else if(v instanceof XJSONObject) {
+			writeObject((XJSONObject) v);
+		} else if(v instanceof XJSONArray) {
+			writeArray((XJSONArray) v);
+		} else {
+			writeTag(STRING);
+			writeUTF8(v.toString());
+		}
+	}
+
+	void writeObject(XJSONObject o) {
+		int n = o.keys.length;
+		int start = beginContainer(OBJECT, n);
+		for(int i = 0; i < n; i++) {
+			writeUTF8(o.keys[i]);
+			writeValue(o.values[i], o.prims, i);
+		}
+		putInt(start - 4, len - start);
+	}
+
+	void writeArray(XJSONArray a) {
+		int n = a.size();
+		int start = beginContainer(ARRAY, n);
+		for(int i = 0; i < n; i++) {
+			if(a.items != null) {
+				writeValue(a.items[i], a.prims, i);
+			} else if(a.doubles != null) {
+				writeLong(DOUBLE, Double.doubleToRawLongBits(a.doubles[i]));
+			} else {
+				long v = a.prims[i];
+				if(v >= Integer.MIN_VALUE && v <= Integer.MAX_VALUE) {
+					writeInt(INT, (int) v);
+				} else {
+					writeLong(LONG, v);
+				}
+			}
+		}
+		putInt(start - 4, len - start);
+	}
+
+	/**
+	 * returns where the body starts, the body size is patched in after it
+	 * */
+	int beginContainer(byte tag, int count) {
+		ensure(HEADER);
+		buf[len] = tag;
+		putInt(len + 1, count);
+		len += HEADER;
+		return len;
+	}
+
+	void writeUTF8(String s) {
+		ensure(4 + s.length() * 3);
+		int at = len;
+		int p = JSONUtf8.encode(s, buf, len + 4);
+		putInt(at, p - at - 4);
+		len = p;
+	}
+
+	/**
+	 * offset just past the value starting at at
+	 * */
+	static int skip(ByteBuffer tape, int at) {
+		switch(tape.get(at)) {
+		case NULL:
+		case TRUE:
+		case FALSE:
+			return at + 1;
+		case INT:
+			return at + 5;
+		case LONG:
+		case DOUBLE:
+			return at + 9;
+		case CHAR:
+			return at + 3;
+		case STRING:
+			return at + 5 + tape.getInt(at + 1);
+		default:
+			return at + HEADER + tape.getInt(at + 5);
+		}
+	}
+
+	/**
+	 * offset of the member value named by the utf-8 bytes of key, or -1
+	 * */
+	static int member(ByteBuffer tape, int at, byte[] key) {
+		if(tape.get(at) != OBJECT) {
+			return -1;
+		}
+		int n = tape.getInt(at + 1);
+		int p = at + HEADER;
+		for(int i = 0; i < n; i++) {
+			int klen = tape.getInt(p);
+			int value = p + 4 + klen;
+			if(klen == key.length && keyEquals(tape, p + 4, key)) {
+				return value;
+			}
+			p = skip(tape, value);
+		}
+		return -1;
+	}
+
+	static boolean keyEquals(ByteBuffer tape, int at, byte[] key) {
+		for(int i = 0; i < key.length; i++) {
+			if(tape.get(at + i) != key[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * offset of the element at index, or -1
+	 * */
+	static int element(ByteBuffer tape, int at, int index) {
+		if(tape.get(at) != ARRAY || index < 0 || index >= tape.getInt(at + 1)) {
+			return -1;
+		}
+		int p = at + HEADER;
+		for(int i = 0; i < index; i++) {
+			p = skip(tape, p);
+		}
+		return p;
+	}
+
+	static String readUTF8(ByteBuffer tape, int at) {
+		int n = tape.getInt(at);
+		byte[] b = new byte[n];
+		tape.get(at + 4, b, 0, n);
+		return new String(b, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * the value at at as the tree XJSON.parse builds, containers become
+	 * LinkedHashMap and LinkedList
+	 * */
+	static Object read(ByteBuffer tape, int at) {
+		switch(tape.get(at)) {
+		case NULL:
+			return null;
+		case TRUE:
+			return Boolean.TRUE;
+		case FALSE:
+			return Boolean.FALSE;
+		case INT:
+			return tape.getInt(at + 1);
+		case LONG:
+			return tape.getLong(at + 1);
+		case DOUBLE:
+			return tape.getDouble(at + 1);
+		case CHAR:
+			return tape.getChar(at + 1);
+		case STRING:
+			return readUTF8(tape, at + 1);
+		case OBJECT:
+			return readMap(tape, at);
+		default:
+			return readList(tape, at);
+		}
+	}
+
+	static LinkedHashMap<String, Object> readMap(ByteBuffer tape, int at) {
+		int n = tape.getInt(at + 1);
+		LinkedHashMap<String, Object> ret = new LinkedHashMap<>();
+		int p = at + HEADER;
+		for(int i = 0; i < n; i++) {
+			String key = readUTF8(tape, p);
+			p += 4 + tape.getInt(p);
+			ret.put(key, read(tape, p));
+			p = skip(tape, p);
+		}
+		return ret;
+	}
+
+	static LinkedList<Object> readList(ByteBuffer tape, int at) {
+		int n = tape.getInt(at + 1);
+		LinkedList<Object> ret = new LinkedList<>();
+		int p = at + HEADER;
+		for(int i = 0; i < n; i++) {
+			ret.add(read(tape, p));
+			p = skip(tape, p);
+		}
+		return ret;
+	}
+}
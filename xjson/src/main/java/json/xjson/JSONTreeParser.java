@@ -0,0 +1,656 @@
+package json.xjson;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * recursive descent parser building the compact XJSONObject and
+ * XJSONArray trees. members and elements are collected on one shared
+ * stack and copied into exact size arrays when their container closes,
+ * so no intermediate lists or maps are created.
+ * */
+class JSONTreeParser {
+
+	static final char BRACES_L = '[';
+	static final char BRACES_R = ']';
+	static final char B_BRACES_L = '{';
+	static final char B_BRACES_R = '}';
+	static final char COMMA = ',';
+	static final char COLON = ':';
+	static final char DOT = '.';
+	static final char QUOTE = '"';
+	static final char SINGLE_QUOTE = '\'';
+	static final char BACKSLASH = '\\';
+
+	static final int MAX_DEPTH = 512;
+
+	/**
+	 * member names are shared between documents, keeping one String
+	 * per distinct name instead of one per parsed member
+	 * */
+	static final int MAX_SHARED_KEYS = 1 << 16;
+	static final int MAX_SHARED_KEY_LENGTH = 64;
+	static final ConcurrentHashMap<String, String> SHARED_KEYS =
+			new ConcurrentHashMap<>();
+
+	static final double[] POW10 = {
+		1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+		1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+	};
+
+	char[] chars;
+	int begin;
+	int end;
+	int pos;
+
+	String[] keyStack = new String[64];
+	Object[] valStack = new Object[64];
+	long[] primStack = new long[64];
+	int top;
+
+	char[] strBuf = new char[64];
+
+	/**
+	 * string values become XJSONString slices of chars
+	 * */
+	static boolean LAZY_STRINGS = false;
+
+	boolean lazyStrings;
+
+	/**
+	 * numbers a long or double would round are kept as BigInteger or
+	 * BigDecimal values instead, for lossless conversions
+	 * */
+	boolean exactNumbers;
+
+	/**
+	 * set when the parser belongs to an XJSONContext
+	 * */
+	JSONNodePool pool;
+	JSONKeyTable keyTable;
+
+	JSONTreeParser() {
+	}
+
+	JSONTreeParser(char[] chars) {
+		reset(chars, 0, chars.length);
+	}
+
+	/**
+	 * points a reused parser at the next document, the stacks may still
+	 * hold values when the previous document failed
+	 * */
+	void reset(char[] chars, int begin, int end) {
+		this.chars = chars;
+		this.begin = begin;
+		this.end = end;
+		this.pos = begin;
+		this.lazyStrings = LAZY_STRINGS;
+		if(top != 0) {
+			clear(0);
+		}
+	}
+
+	static XJSONObject parseObject(String json) throws XJSONException {
+		JSONTreeParser parser = new JSONTreeParser(json.toCharArray());
+		return parser.readDocumentObject();
+	}
+
+	static XJSONArray parseArray(String json) throws XJSONException {
+		JSONTreeParser parser = new JSONTreeParser(json.toCharArray());
+		return parser.readDocumentArray();
+	}
+
+	XJSONObject readDocumentObject() throws XJSONException {
+		skipSpace();
+		if(pos >= end || chars[pos] != B_BRACES_L) {
+			throw error(pos);
+		}
+		XJSONObject ret = readObject(0);
+		checkEnd();
+		return ret;
+	}
+
+	XJSONArray readDocumentArray() throws XJSONException {
+		skipSpace();
+		if(pos >= end || chars[pos] != BRACES_L) {
+			throw error(pos);
+		}
+		XJSONArray ret = readArray(0);
+		checkEnd();
+		return ret;
+	}
+
+	/**
+	 * a single value of any kind, left in slot 0 of the stacks
+	 * */
+	void readDocumentValue() throws XJSONException {
+		skipSpace();
+		readValue(push(), 0);
+		checkEnd();
+	}
+
+	void checkEnd() throws XJSONException {
+		skipSpace();
+		if(pos != end) {
+			throw error(pos);
+		}
+	}
+
+	XJSONException error(int at) {
+		int i = (at < end ? at : end - 1) - begin;
+		return new XJSONException(XJSONException.getErrorMsg(
+				Arrays.copyOfRange(chars, begin, end), i < 0 ? 0 : i));
+	}
+
+	void skipSpace() {
+		while(pos < end) {
+			char c = chars[pos];
+			if(c != ' ' && c != '\n' && c != '\r' && c != '\t') {
+				return;
+			}
+			++pos;
+		}
+	}
+
+	int push() {
+		if(top == valStack.length) {
+			int cap = top << 1;
+			keyStack = Arrays.copyOf(keyStack, cap);
+			valStack = Arrays.copyOf(valStack, cap);
+			primStack = Arrays.copyOf(primStack, cap);
+		}
+		return top++;
+	}
+
+	XJSONObject readObject(int depth) throws XJSONException {
+		if(depth > MAX_DEPTH) {
+			throw error(pos);
+		}
+		++pos;
+		skipSpace();
+		if(pos < end && chars[pos] == B_BRACES_R) {
+			++pos;
+			return XJSONObject.EMPTY;
+		}
+		int base = top;
+		while(true) {
+			if(pos >= end || chars[pos] != QUOTE) {
+				throw error(pos);
+			}
+			String key = readKey();
+			skipSpace();
+			if(pos >= end || chars[pos] != COLON) {
+				throw error(pos);
+			}
+			++pos;
+			skipSpace();
+			int slot = push();
+			keyStack[slot] = key;
+			readValue(slot, depth);
+			skipSpace();
+			if(pos < end && chars[pos] == COMMA) {
+				++pos;
+				skipSpace();
+				continue;
+			}
+			if(pos < end && chars[pos] == B_BRACES_R) {
+				++pos;
+				break;
+			}
+			throw error(pos);
+		}
+		XJSONObject ret = pool == null ? null : pool.object(this, base);
+		if(ret == null) {
+			ret = XJSONObject.of(
+					Arrays.copyOfRange(keyStack, base, top),
+					Arrays.copyOfRange(valStack, base, top),
+					copyPrims(base, top));
+		}
+		clear(base);
+		return ret;
+	}
+
+	XJSONArray readArray(int depth) throws XJSONException {
+		if(depth > MAX_DEPTH) {
+			throw error(pos);
+		}
+		++pos;
+		skipSpace();
+		if(pos < end && chars[pos] == BRACES_R) {
+			++pos;
+			return XJSONArray.EMPTY;
+		}
+		int base = top;
+		boolean numbers = true;
+		boolean integers = false;
+		boolean fractions = false;
+		while(true) {
+			int slot = push();
+			readValue(slot, depth);
+			if(numbers) {
+				Object v = valStack[slot];
+				if(v == XJSONObject.DOUBLE_SLOT) {
+					fractions = true;
+				} else if(v == XJSONObject.INT_SLOT || v == XJSONObject.LONG_SLOT) {
+					integers = true;
+				} else {
+					numbers = false;
+				}
+				if(integers && fractions) {
+					numbers = false;
+				}
+			}
+			skipSpace();
+			if(pos < end && chars[pos] == COMMA) {
+				++pos;
+				skipSpace();
+				continue;
+			}
+			if(pos < end && chars[pos] == BRACES_R) {
+				++pos;
+				break;
+			}
+			throw error(pos);
+		}
+		XJSONArray ret = pool == null ? null : pool.array(this, base, numbers, fractions);
+		if(ret == null && numbers) {
+			ret = numberArray(base, fractions);
+		}
+		if(ret == null) {
+			ret = new XJSONArray(
+					Arrays.copyOfRange(valStack, base, top),
+					copyPrims(base, top));
+		}
+		clear(base);
+		return ret;
+	}
+
+	/**
+	 * arrays of only integers or only fractions drop the per element
+	 * tags, mixed arrays keep them so integers are not written back as
+	 * fractions
+	 * */
+	XJSONArray numberArray(int base, boolean fractions) {
+		if(!fractions) {
+			return new XJSONArray(Arrays.copyOfRange(primStack, base, top));
+		}
+		double[] ret = new double[top - base];
+		for(int i = base; i < top; i++) {
+			ret[i - base] = Double.longBitsToDouble(primStack[i]);
+		}
+		return new XJSONArray(ret);
+	}
+
+	/**
+	 * the side array is only allocated when the container holds numbers
+	 * */
+	long[] copyPrims(int from, int to) {
+		for(int i = from; i < to; i++) {
+			Object v = valStack[i];
+			if(v == XJSONObject.INT_SLOT || v == XJSONObject.LONG_SLOT ||
+					v == XJSONObject.DOUBLE_SLOT) {
+				return Arrays.copyOfRange(primStack, from, to);
+			}
+		}
+		return null;
+	}
+
+	void clear(int base) {
+		Arrays.fill(keyStack, base, top, null);
+		Arrays.fill(valStack, base, top, null);
+		top = base;
+	}
+
+	void readValue(int slot, int depth) throws XJSONException {
+		if(pos >= end) {
+			throw error(pos);
+		}
+		char c = chars[pos];
+		switch(c) {
+		case B_BRACES_L:
+			valStack[slot] = readObject(depth + 1);
+			return;
+		case BRACES_L:
+			valStack[slot] = readArray(depth + 1);
+			return;
+		case QUOTE:
+			valStack[slot] = lazyStrings ? readSlice() : readString();
+			return;
+		case 't':
+			readLiteral(JSONDecoder.TRUE);
+			valStack[slot] = Boolean.TRUE;
+			return;
+		case 'f':
+			readLiteral(JSONDecoder.FALSE);
+			valStack[slot] = Boolean.FALSE;
+			return;
+		case 'n':
+			readLiteral(JSONDecoder.NULL);
+			valStack[slot] = null;
+			return;
+		case SINGLE_QUOTE:
+			valStack[slot] = readChar();
+			return;
+		default:
+			readNumber(slot);
+		}
+	}
+
+	void readLiteral(char[] literal) throws XJSONException {
+		if(pos + literal.length > end) {
+			throw error(pos);
+		}
+		for(int i = 0; i < literal.length; i++) {
+			if(chars[pos + i] != literal[i]) {
+				throw error(pos);
+			}
+		}
+		pos += literal.length;
+	}
+
+	/**
+	 * single quoted char written by the encoder for char fields
+	 * */
+	Character readChar() throws XJSONException {
+		if(pos + 2 < end && chars[pos + 2] == SINGLE_QUOTE) {
+			char c = chars[pos + 1];
+			pos += 3;
+			return c;
+		}
+		throw error(pos);
+	}
+
+	void readNumber(int slot) throws XJSONException {
+		int start = pos;
+		boolean negative = false;
+		if(chars[pos] == '-') {
+			negative = true;
+			++pos;
+		}
+		long mantissa = 0;
+		int digits = 0;
+		int intStart = pos;
+		while(pos < end && chars[pos] >= '0' && chars[pos] <= '9') {
+			if(digits < 19) {
+				mantissa = mantissa * 10 + (chars[pos] - '0');
+			}
+			++digits;
+			++pos;
+		}
+		if(digits == 0 || (digits > 1 && chars[intStart] == '0')) {
+			throw error(start);
+		}
+		int exp10 = 0;
+		boolean real = false;
+		if(pos < end && chars[pos] == DOT) {
+			real = true;
+			int fracStart = ++pos;
+			while(pos < end && chars[pos] >= '0' && chars[pos] <= '9') {
+				if(digits < 19) {
+					mantissa = mantissa * 10 + (chars[pos] - '0');
+					--exp10;
+				}
+				++digits;
+				++pos;
+			}
+			if(pos == fracStart) {
+				throw error(start);
+			}
+		}
+		if(pos < end && (chars[pos] == 'e' || chars[pos] == 'E')) {
+			real = true;
+			++pos;
+			boolean expNegative = false;
+			if(pos < end && (chars[pos] == '+' || chars[pos] == '-')) {
+				expNegative = chars[pos] == '-';
+				++pos;
+			}
+			int expStart = pos;
+			int e = 0;
+			while(pos < end && chars[pos] >= '0' && chars[pos] <= '9') {
+				if(e < 100000) {
+					e = e * 10 + (chars[pos] - '0');
+				}
+				++pos;
+			}
+			if(pos == expStart) {
+				throw error(start);
+			}
+			exp10 += expNegative ? -e : e;
+		}
+		if(!real) {
+			if(digits < 19) {
+				long v = negative ? -mantissa : mantissa;
+				primStack[slot] = v;
+				valStack[slot] = (v >= Integer.MIN_VALUE && v <= Integer.MAX_VALUE) ?
+						XJSONObject.INT_SLOT : XJSONObject.LONG_SLOT;
+				return;
+			}
+			String s = new String(chars, start, pos - start);
+			try {
+				primStack[slot] = Long.parseLong(s);
+				valStack[slot] = XJSONObject.LONG_SLOT;
+			} catch(NumberFormatException ignore) {
+				if(exactNumbers) {
+					valStack[slot] = new BigInteger(s);
+					return;
+				}
+				primStack[slot] = Double.doubleToRawLongBits(Double.parseDouble(s));
+				valStack[slot] = XJSONObject.DOUBLE_SLOT;
+			}
+			return;
+		}
+		double v;
+		/**
+		 * exact when both the mantissa and the power of ten fit a double
+		 * */
+		if(digits <= 15 && exp10 >= -22 && exp10 <= 22) {
+			v = exp10 < 0 ? mantissa / POW10[-exp10] : mantissa * POW10[exp10];
+			if(negative) {
+				v = -v;
+			}
+		} else {
+			String s = new String(chars, start, pos - start);
+			v = Double.parseDouble(s);
+			if(exactNumbers) {
+				BigDecimal exact = new BigDecimal(s);
+				if(Double.isInfinite(v) || BigDecimal.valueOf(v).compareTo(exact) != 0) {
+					valStack[slot] = exact;
+					return;
+				}
+			}
+		}
+		primStack[slot] = Double.doubleToRawLongBits(v);
+		valStack[slot] = XJSONObject.DOUBLE_SLOT;
+	}
+
+	String readKey() throws XJSONException {
+		if(keyTable != null) {
+			int start = pos + 1;
+			int i = start;
+			int limit = Math.min(end, start + MAX_SHARED_KEY_LENGTH + 1);
+			while(i < limit && chars[i] != QUOTE && chars[i] != BACKSLASH) {
+				++i;
+			}
+			if(i < limit && chars[i] == QUOTE) {
+				pos = i + 1;
+				return keyTable.get(chars, start, i - start);
+			}
+		}
+		return share(readString());
+	}
+
+	static String share(String key) {
+		if(key.length() > MAX_SHARED_KEY_LENGTH) {
+			return key;
+		}
+		String shared = SHARED_KEYS.get(key);
+		if(shared != null) {
+			return shared;
+		}
+		if(SHARED_KEYS.size() < MAX_SHARED_KEYS) {
+			shared = SHARED_KEYS.putIfAbsent(key, key);
+			return shared == null ? key : shared;
+		}
+		return key;
+	}
+
+	String readString() throws XJSONException {
+		int start = ++pos;
+		while(pos < end) {
+			char c = chars[pos];
+			if(c == QUOTE) {
+				return new String(chars, start, pos++ - start);
+			}
+			if(c == BACKSLASH) {
+				return readEscapedString(start);
+			}
+			++pos;
+		}
+		throw error(start - 1);
+	}
+
+	String readEscapedString(int start) throws XJSONException {
+		int len = pos - start;
+		if(strBuf.length < len + 16) {
+			strBuf = new char[Math.max(strBuf.length << 1, len + 16)];
+		}
+		System.arraycopy(chars, start, strBuf, 0, len);
+		while(pos < end) {
+			char c = chars[pos];
+			if(c == QUOTE) {
+				++pos;
+				return new String(strBuf, 0, len);
+			}
+			if(len + 1 >= strBuf.length) {
+				strBuf = Arrays.copyOf(strBuf, strBuf.length << 1);
+			}
+			if(c != BACKSLASH) {
+				strBuf[len++] = c;
+				++pos;
+				continue;
+			}
+			if(pos + 1 >= end) {
+				break;
+			}
+			char e = chars[pos + 1];
+			pos += 2;
+			switch(e) {
+			case 'n':
+				strBuf[len++] = '\n';
+				break;
+			case 't':
+				strBuf[len++] = '\t';
+				break;
+			case 'r':
+				strBuf[len++] = '\r';
+				break;
+			case 'b':
+				strBuf[len++] = '\b';
+				break;
+			case 'f':
+				strBuf[len++] = '\f';
+				break;
+			case 'u':
+				if(pos + 4 > end) {
+					throw error(start - 1);
+				}
+				int cp = 0;
+				for(int i = 0; i < 4; i++) {
+					int d = Character.digit(chars[pos + i], 16);
+					if(d < 0) {
+						throw error(start - 1);
+					}
+					cp = (cp << 4) | d;
+				}
+				pos += 4;
+				strBuf[len++] = (char) cp;
+				break;
+			default:
+				strBuf[len++] = e;
+			}
+		}
+		throw error(start - 1);
+	}
+
+	/**
+	 * only finds the closing quote and checks the escapes, decoding
+	 * is left to XJSONString.toString
+	 * */
+	XJSONString readSlice() throws XJSONException {
+		int start = ++pos;
+		boolean escaped = false;
+		while(pos < end) {
+			char c = chars[pos];
+			if(c == QUOTE) {
+				return new XJSONString(chars, start, pos++ - start, escaped);
+			}
+			if(c != BACKSLASH) {
+				++pos;
+				continue;
+			}
+			escaped = true;
+			if(pos + 1 >= end) {
+				break;
+			}
+			if(chars[pos + 1] == 'u') {
+				if(pos + 6 > end) {
+					break;
+				}
+				for(int i = pos + 2; i < pos + 6; i++) {
+					if(Character.digit(chars[i], 16) < 0) {
+						throw error(start - 1);
+					}
+				}
+				pos += 6;
+			} else {
+				pos += 2;
+			}
+		}
+		throw error(start - 1);
+	}
+
+	/**
+	 * decodes string content already checked by readSlice
+	 * */
+	static String unescape(char[] chars, int offset, int len) {
+		char[] buf = new char[len];
+		int n = 0;
+		int to = offset + len;
+		for(int i = offset; i < to; i++) {
+			char c = chars[i];
+			if(c != BACKSLASH) {
+				buf[n++] = c;
+				continue;
+			}
+			char e = chars[++i];
+			switch(e) {
+			case 'n':
+				buf[n++] = '\n';
+				break;
+			case 't':
+				buf[n++] = '\t';
+				break;
+			case 'r':
+				buf[n++] = '\r';
+				break;
+			case 'b':
+				buf[n++] = '\b';
+				break;
+			case 'f':
+				buf[n++] = '\f';
+				break;
+			case 'u':
+				buf[n++] = (char) Integer.parseInt(new String(chars, i + 1, 4), 16);
+				i += 4;
+				break;
+			default:
+				buf[n++] = e;
+			}
+		}
+		return new String(buf, 0, n);
+	}
+}
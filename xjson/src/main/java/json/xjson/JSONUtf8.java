@@ -0,0 +1,106 @@
+package json.xjson;
+
+/**
+ * utf-8 length and encoding of chars and strings, shared by the text,
+ * tape and binary encoders. unpaired surrogates become '?' like
+ * String.getBytes, callers size the target with length first.
+ * */
+class JSONUtf8 {
+
+	static int length(char[] chars, int from, int to) {
+		int len = to - from;
+		for(int i = from; i < to; i++) {
+			char c = chars[i];
+			if(c < 0x80) {
+				continue;
+			}
+			if(c < 0x800) {
+				len += 1;
+			} else if(Character.isHighSurrogate(c) && i + 1 < to 
+					&& Character.isLowSurrogate(chars[i + 1])) {
+				len += 2;
+				++i;
+			} else if(!Character.isSurrogate(c)) {
+				len += 2;
+			}
+		}
+		return len;
+	}
+
+	static int length(String s) {
+		int n = s.length();
+		int len = n;
+		for(int i = 0; i < n; i++) {
+			char c = s.charAt(i);
+			if(c < 0x80) {
+				continue;
+			}
+			if(c < 0x800) {
+				len += 1;
+			} else if(Character.isHighSurrogate(c) && i + 1 < n &&
+					Character.isLowSurrogate(s.charAt(i + 1))) {
+				len += 2;
+				++i;
+			} else if(!Character.isSurrogate(c)) {
+				len += 2;
+			}
+		}
+		return len;
+	}
+
+	/**
+	 * returns the position after the last byte written
+	 * */
+	static int encode(char[] chars, int from, int to, byte[] b, int p) {
+		for(int i = from; i < to; i++) {
+			char c = chars[i];
+			if(c < 0x80) {
+				b[p++] = (byte) c;
+			} else if(c < 0x800) {
+				b[p++] = (byte) (0xc0 | (c >> 6));
+				b[p++] = (byte) (0x80 | (c & 0x3f));
+			} else if(Character.isHighSurrogate(c) && i + 1 < to &&
+					Character.isLowSurrogate(chars[i + 1])) {
+				p = encodePair(Character.toCodePoint(c, chars[++i]), b, p);
+			} else if(Character.isSurrogate(c)) {
+				b[p++] = '?';
+			} else {
+				b[p++] = (byte) (0xe0 | (c >> 12));
+				b[p++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+				b[p++] = (byte) (0x80 | (c & 0x3f));
+			}
+		}
+		return p;
+	}
+
+	static int encode(String s, byte[] b, int p) {
+		int n = s.length();
+		for(int i = 0; i < n; i++) {
+			char c = s.charAt(i);
+			if(c < 0x80) {
+				b[p++] = (byte) c;
+			} else if(c < 0x800) {
+				b[p++] = (byte) (0xc0 | (c >> 6));
+				b[p++] = (byte) (0x80 | (c & 0x3f));
+			} else if(Character.isHighSurrogate(c) && i + 1 < n &&
+					Character.isLowSurrogate(s.charAt(i + 1))) {
+				p = encodePair(Character.toCodePoint(c, s.charAt(++i)), b, p);
+			} else if(Character.isSurrogate(c)) {
+				b[p++] = '?';
+			} else {
+				b[p++] = (byte) (0xe0 | (c >> 12));
+				b[p++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+				b[p++] = (byte) (0x80 | (c & 0x3f));
+			}
+		}
+		return p;
+	}
+
+	static int encodePair(int cp, byte[] b, int p) {
+		b[p++] = (byte) (0xf0 | (cp >> 18));
+		b[p++] = (byte) (0x80 | ((cp >> 12) & 0x3f));
+		b[p++] = (byte) (0x80 | ((cp >> 6) & 0x3f));
+		b[p++] = (byte) (0x80 | (cp & 0x3f));
+		return p;
+	}
+}
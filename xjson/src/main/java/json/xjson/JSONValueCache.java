@@ -0,0 +1,145 @@
+package json.xjson;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * encoded output of immutable objects, keyed by identity and held
+ * weakly so cached instances can still be collected.
+ * an instance is cached when it was registered with cacheValue or
+ * when its class was marked with setImmutable.
+ * */
+class JSONValueCache {
+
+	static final int MAX_ENTRIES = 1 << 16;
+
+	/**
+	 * one slot per compact output mode, beautified output depends on
+	 * the nesting depth and is never cached
+	 * */
+	static final int MODE_PLAIN = 0;
+	static final int MODE_SORTED = 1;
+	static final int MODE_CANONICAL = 2;
+
+	static final Set<Class<?>> IMMUTABLE_CLASSES = ConcurrentHashMap.newKeySet();
+	/**
+	 * classes with at least one cached instance, every other value is
+	 * passed over without probing the map
+	 * */
+	static final Set<Class<?>> CACHED_CLASSES = ConcurrentHashMap.newKeySet();
+	static final ConcurrentHashMap<Key, AtomicReferenceArray<char[]>> CACHE = 
+			new ConcurrentHashMap<>();
+	static final ReferenceQueue<Object> QUEUE = new ReferenceQueue<>();
+
+	static volatile boolean enabled = false;
+
+	static final class Key extends WeakReference<Object> {
+		final int hash;
+
+		Key(Object referent, ReferenceQueue<Object> queue) {
+			super(referent, queue);
+			hash = System.identityHashCode(referent);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if(this == obj) {
+				return true;
+			}
+			if(!(obj instanceof Key)) {
+				return false;
+			}
+			Object referent = get();
+			return referent != null && referent == ((Key) obj).get();
+		}
+	}
+
+	/**
+	 * map probe, a plain object so a lookup does not create a reference
+	 * the gc has to process
+	 * */
+	static final class Probe {
+		final Object referent;
+
+		Probe(Object referent) {
+			this.referent = referent;
+		}
+
+		@Override
+		public int hashCode() {
+			return System.identityHashCode(referent);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof Key && ((Key) obj).get() == referent;
+		}
+	}
+
+	static void setImmutable(Class<?> cls) {
+		IMMUTABLE_CLASSES.add(cls);
+		CACHED_CLASSES.add(cls);
+		enabled = true;
+	}
+
+	static void cacheValue(Object data) {
+		entry(data, true);
+		CACHED_CLASSES.add(data.getClass());
+		enabled = true;
+	}
+
+	static void clear() {
+		CACHE.clear();
+		IMMUTABLE_CLASSES.clear();
+		CACHED_CLASSES.clear();
+		enabled = false;
+	}
+
+	static int mode(JSONWriter out) {
+		if(out.canonical) {
+			return MODE_CANONICAL;
+		}
+		return out.sortKeys ? MODE_SORTED : MODE_PLAIN;
+	}
+
+	/**
+	 * slots of a cached instance, null when data is not cacheable
+	 * */
+	static AtomicReferenceArray<char[]> entry(Object data, boolean create) {
+		AtomicReferenceArray<char[]> slots = CACHE.get(new Probe(data));
+		if(slots != null || !create) {
+			return slots;
+		}
+		expunge();
+		if(CACHE.size() >= MAX_ENTRIES) {
+			return null;
+		}
+		slots = new AtomicReferenceArray<>(MODE_CANONICAL + 1);
+		AtomicReferenceArray<char[]> old = CACHE.putIfAbsent(new Key(data, QUEUE), slots);
+		return old == null ? slots : old;
+	}
+
+	static AtomicReferenceArray<char[]> lookup(Object data) {
+		Class<?> cls = data.getClass();
+		if(!CACHED_CLASSES.contains(cls)) {
+			return null;
+		}
+		return entry(data, IMMUTABLE_CLASSES.contains(cls));
+	}
+
+	static void expunge() {
+		Reference<?> ref;
+		while((ref = QUEUE.poll()) != null) {
+			CACHE.remove(ref);
+		}
+	}
+}
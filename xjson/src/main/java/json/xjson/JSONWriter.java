@@ -0,0 +1,209 @@
+package json.xjson;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * growable char buffer the encoder writes into, numbers are
+ * appended in place without temporary strings.
+ * writers are leased from a small shared pool rather than kept in
+ * thread locals, so virtual threads do not pin one buffer each.
+ * */
+class JSONWriter {
+
+	static final int DEFAULT_CAPACITY = 256;
+	/**
+	 * bigger buffers are left to the gc instead of being pooled
+	 * */
+	static final int MAX_POOLED_CAPACITY = 1 << 20;
+	static final int POOL_SIZE = 
+			Math.max(8, Runtime.getRuntime().availableProcessors() * 2);
+	static final AtomicReferenceArray<JSONWriter> POOL = 
+			new AtomicReferenceArray<>(POOL_SIZE);
+
+	/**
+	 * receives the buffered chars whenever a writer with a sink fills up
+	 * */
+	interface Sink {
+		void write(char[] chars, int offset, int len);
+	}
+
+	char[] buf;
+	int count;
+
+	boolean beautify;
+	boolean sortKeys;
+	boolean canonical;
+	/**
+	 * field view and XJSONOmit ordinal class fields are encoded with
+	 * */
+	JSONEncodePlan.View view;
+	int omit;
+	Sink sink;
+
+	JSONWriter() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	JSONWriter(int capacity) {
+		buf = new char[capacity];
+	}
+
+	static JSONWriter lease(int capacity) {
+		int start = (int) (Thread.currentThread().getId() % POOL_SIZE);
+		for(int i = 0; i < POOL_SIZE; i++) {
+			int slot = (start + i) % POOL_SIZE;
+			JSONWriter w = POOL.get(slot);
+			if(w != null && POOL.compareAndSet(slot, w, null)) {
+				w.count = 0;
+				w.reset();
+				w.ensureCapacity(capacity);
+				return w;
+			}
+		}
+		return new JSONWriter(Math.max(capacity, DEFAULT_CAPACITY));
+	}
+
+	/**
+	 * neutral modes, a leased writer never inherits the previous user's
+	 * */
+	void reset() {
+		beautify = false;
+		sortKeys = false;
+		canonical = false;
+		view = null;
+		omit = 0;
+		sink = null;
+	}
+
+	void release() {
+		count = 0;
+		reset();
+		if(buf.length > MAX_POOLED_CAPACITY) {
+			return;
+		}
+		int start = (int) (Thread.currentThread().getId() % POOL_SIZE);
+		for(int i = 0; i < POOL_SIZE; i++) {
+			int slot = (start + i) % POOL_SIZE;
+			if(POOL.get(slot) == null && POOL.compareAndSet(slot, null, this)) {
+				return;
+			}
+		}
+	}
+
+	void ensureCapacity(int extra) {
+		int min = count + extra;
+		if(min > buf.length) {
+			if(sink != null && count > 0) {
+				flush();
+				if(extra <= buf.length) {
+					return;
+				}
+				min = extra;
+			}
+			grow(min);
+		}
+	}
+
+	void flush() {
+		if(sink != null && count > 0) {
+			sink.write(buf, 0, count);
+			count = 0;
+		}
+	}
+
+	/**
+	 * hands the buffer to the sink once it holds a chunk, called between
+	 * sequence elements so a large pooled buffer does not delay output
+	 * */
+	void drain() {
+		if(sink != null && count >= JSONByteSink.DEFAULT_CHUNK) {
+			flush();
+		}
+	}
+
+	void grow(int min) {
+		int cap = buf.length << 1;
+		if(cap < min) {
+			cap = min;
+		}
+		buf = Arrays.copyOf(buf, cap);
+	}
+
+	JSONWriter append(char c) {
+		if(count == buf.length) {
+			ensureCapacity(1);
+		}
+		buf[count++] = c;
+		return this;
+	}
+
+	JSONWriter append(String s) {
+		int len = s.length();
+		ensureCapacity(len);
+		s.getChars(0, len, buf, count);
+		count += len;
+		return this;
+	}
+
+	JSONWriter append(char[] chars, int offset, int len) {
+		ensureCapacity(len);
+		System.arraycopy(chars, offset, buf, count, len);
+		count += len;
+		return this;
+	}
+
+	JSONWriter writeInt(int v) {
+		ensureCapacity(JSONNumber.MAX_CHARS);
+		count = JSONNumber.writeInt(buf, count, v);
+		return this;
+	}
+
+	JSONWriter writeLong(long v) {
+		ensureCapacity(JSONNumber.MAX_CHARS);
+		count = JSONNumber.writeLong(buf, count, v);
+		return this;
+	}
+
+	JSONWriter writeFloat(float v) {
+		ensureCapacity(JSONNumber.MAX_CHARS);
+		count = JSONNumber.writeFloat(buf, count, v, canonical);
+		return this;
+	}
+
+	JSONWriter writeDouble(double v) {
+		ensureCapacity(JSONNumber.MAX_CHARS);
+		count = JSONNumber.writeDouble(buf, count, v, canonical);
+		return this;
+	}
+
+	JSONWriter writeBigInteger(BigInteger v) {
+		JSONNumber.writeBigInteger(this, v);
+		return this;
+	}
+
+	JSONWriter writeBigDecimal(BigDecimal v) {
+		JSONNumber.writeBigDecimal(this, v);
+		return this;
+	}
+
+	int utf8Length() {
+		return JSONUtf8.length(buf, 0, count);
+	}
+
+	/**
+	 * utf-8 bytes of the buffer, sized exactly in one allocation
+	 * */
+	byte[] toUTF8() {
+		byte[] ret = new byte[utf8Length()];
+		JSONUtf8.encode(buf, 0, count, ret, 0);
+		return ret;
+	}
+
+	@Override
+	public String toString() {
+		return new String(buf, 0, count);
+	}
+}
@@ -0,0 +1,504 @@
+package json.xjson;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.security.MessageDigest;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+
+public class XJSON {
+	
+	public static LinkedHashMap<String, Object> parse(String json) throws XJSONException {
+		if(null == json || json.trim().isEmpty()) {
+			throw new XJSONException("input json string can not be null or empty.");
+		}
+		if(JSONMetrics.off()) {
+			return JSONDecoder.parseToMap(json);
+		}
+		return JSONMetrics.parse("parse", LinkedHashMap.class, json, () -> JSONDecoder.parseToMap(json));
+	}
+
+	public static LinkedList<Object> parseList(String json) throws XJSONException {
+		if(null == json || json.trim().isEmpty()) {
+			throw new XJSONException("input json string can not be null or empty.");
+		}
+		if(JSONMetrics.off()) {
+			return JSONDecoder.parseToList(json);
+		}
+		return JSONMetrics.parse("parseList", LinkedList.class, json, () -> JSONDecoder.parseToList(json));
+	}
+	
+	/**
+	 * parses to the compact read only tree, a fraction of the heap
+	 * taken by the LinkedHashMap tree of parse(String).
+	 * with useParseCache repeated texts share one tree
+	 * */
+	public static XJSONObject parseCompact(String json) throws XJSONException {
+		if(null == json || json.trim().isEmpty()) {
+			throw new XJSONException("input json string can not be null or empty.");
+		}
+		if(JSONMetrics.off()) {
+			return JSONParseCache.parseObject(json);
+		}
+		return JSONMetrics.parse("parseCompact", XJSONObject.class, json, () -> JSONParseCache.parseObject(json));
+	}
+
+	public static XJSONArray parseCompactList(String json) throws XJSONException {
+		if(null == json || json.trim().isEmpty()) {
+			throw new XJSONException("input json string can not be null or empty.");
+		}
+		if(JSONMetrics.off()) {
+			return JSONParseCache.parseArray(json);
+		}
+		return JSONMetrics.parse("parseCompactList", XJSONArray.class, json, () -> JSONParseCache.parseArray(json));
+	}
+	
+	/**
+	 * parses with the buffers and nodes of ctx, the tree is valid until
+	 * ctx.reset()
+	 * */
+	public static XJSONObject parseCompact(String json, XJSONContext ctx) throws XJSONException {
+		if(null == json || json.trim().isEmpty()) {
+			throw new XJSONException("input json string can not be null or empty.");
+		}
+		if(JSONMetrics.off()) {
+			return ctx.begin(json).readDocumentObject();
+		}
+		return JSONMetrics.parse("parseCompact", XJSONObject.class, json, () -> ctx.begin(json).readDocumentObject());
+	}
+
+	public static XJSONArray parseCompactList(String json, XJSONContext ctx) throws XJSONException {
+		if(null == json || json.trim().isEmpty()) {
+			throw new XJSONException("input json string can not be null or empty.");
+		}
+		if(JSONMetrics.off()) {
+			return ctx.begin(json).readDocumentArray();
+		}
+		return JSONMetrics.parse("parseCompactList", XJSONArray.class, json, () -> ctx.begin(json).readDocumentArray());
+	}
+
+	/**
+	 * parses into the off-heap store, the returned handle reads the
+	 * document lazily until store.close()
+	 * */
+	public static XJSONDocument parseOffHeap(String json, XJSONDocumentStore store) throws XJSONException {
+		if(JSONMetrics.off()) {
+			return store.add(json);
+		}
+		return JSONMetrics.parse("parseOffHeap", XJSONDocument.class, json, () -> store.add(json));
+	}
+
+	public static <T> T parse(String json, Class<T> clazz) throws XJSONException {
+		if(null == json || json.trim().isEmpty()) {
+			throw new XJSONException("input json string can not be null or empty.");
+		}
+		if(JSONMetrics.off()) {
+			return JSONParseCache.parseClass(json, clazz);
+		}
+		return JSONMetrics.parse("parse", clazz, json, () -> JSONParseCache.parseClass(json, clazz));
+	}
+
+	/**
+	 * converts between objects, maps and lists the way parse(stringify(data),
+	 * clazz) would, without the json text in between
+	 * */
+	@SuppressWarnings("unchecked")
+	public static <T> T convert(Object data, Class<T> clazz) throws XJSONException {
+		return (T) JSONReflect.convert(data, clazz);
+	}
+	
+	/**
+	 * generic targets such as List<Item>, e.g. a field's getGenericType()
+	 * */
+	public static Object convert(Object data, Type type) throws XJSONException {
+		return JSONReflect.convert(data, type);
+	}
+	
+	/**
+	 * reads json into target instead of a new instance, fields without
+	 * a member get the value a new instance of the class starts with
+	 * */
+	public static <T> T parseInto(String json, T target) throws XJSONException {
+		return parseInto(json, target, false);
+	}
+	
+	/**
+	 * with keepAbsent fields without a member in json keep their value
+	 * */
+	public static <T> T parseInto(String json, T target, boolean keepAbsent) throws XJSONException {
+		if(null == json || json.trim().isEmpty()) {
+			throw new XJSONException("input json string can not be null or empty.");
+		}
+		if(null == target) {
+			throw new XJSONException("target object can not be null.");
+		}
+		if(JSONMetrics.off()) {
+			JSONReflect.reflectInto(JSONDecoder.parseToMap(json), target, keepAbsent);
+			return target;
+		}
+		return JSONMetrics.parse("parseInto", target.getClass(), json, () -> {
+			JSONReflect.reflectInto(JSONDecoder.parseToMap(json), target, keepAbsent);
+			return target;
+		});
+	}
+	
+	public static <T> LinkedList<T> parseList(String json, Class<T> clazz) throws XJSONException {
+		if(null == json || json.trim().isEmpty()) {
+			throw new XJSONException("input json string can not be null or empty.");
+		}
+		if(JSONMetrics.off()) {
+			return JSONDecoder.parseToClassList(json, clazz);
+		}
+		return JSONMetrics.parse("parseList", clazz, json, () -> JSONDecoder.parseToClassList(json, clazz));
+	}
+	
+	/**
+	 * publishes the elements of the top level array in, read and parsed
+	 * as the subscriber requests them, elements are the values parse and
+	 * parseList build
+	 * */
+	public static Flow.Publisher<Object> publishList(Reader in) throws XJSONException {
+		return publishList(in, Object.class);
+	}
+	
+	public static <T> Flow.Publisher<T> publishList(Reader in, Class<T> clazz) throws XJSONException {
+		return publishList(in, clazz, JSONArrayPublisher.DEFAULT);
+	}
+	
+	/**
+	 * reading and parsing run on executor, e.g. a virtual thread executor
+	 * */
+	public static <T> Flow.Publisher<T> publishList(Reader in, Class<T> clazz, Executor executor) throws XJSONException {
+		if(null == in || null == clazz || null == executor) {
+			throw new XJSONException("reader, class and executor can not be null.");
+		}
+		return new JSONArrayPublisher<>(in, clazz, executor);
+	}
+	
+	public static String stringify(Object data) throws XJSONException  {
+		if(JSONMetrics.off()) {
+			return JSONEncoder.stringifyOneObject(data);
+		}
+		return JSONMetrics.stringify("stringify", data, false, () -> JSONEncoder.stringifyOneObject(data));
+	}
+	
+	public static byte[] stringifyToBytes(Object data) throws XJSONException  {
+		if(JSONMetrics.off()) {
+			return JSONEncoder.stringifyToBytes(data);
+		}
+		return JSONMetrics.stringify("stringifyToBytes", data, false, () -> JSONEncoder.stringifyToBytes(data));
+	}
+	
+	/**
+	 * compact output bounded by limits, meant for logging. encoding stops
+	 * at the first limit reached and cyclic references are written as
+	 * "...(cycle)" instead of being followed
+	 * */
+	public static String stringify(Object data, XJSONLimits limits) throws XJSONException  {
+		if(null == limits) {
+			throw new XJSONException("limits can not be null.");
+		}
+		if(JSONMetrics.off()) {
+			return JSONLimitedEncoder.stringify(data, limits);
+		}
+		return JSONMetrics.stringify("stringify", data, false, () -> JSONLimitedEncoder.stringify(data, limits));
+	}
+	
+	/**
+	 * encodes class fields through the named view, see defineView
+	 * */
+	public static String stringify(Object data, String view) throws XJSONException  {
+		JSONEncodePlan.View v = JSONEncodePlan.view(view);
+		if(JSONMetrics.off()) {
+			return JSONEncoder.stringifyView(data, v);
+		}
+		return JSONMetrics.stringify("stringify", data, false, () -> JSONEncoder.stringifyView(data, v));
+	}
+	
+	/**
+	 * writes data to out as it is encoded, Iterator, Stream and
+	 * Spliterator values are written while they are pulled, so a cursor
+	 * can be serialised without collecting it first
+	 * */
+	public static void stringify(Object data, Writer out) throws XJSONException  {
+		if(null == out) {
+			throw new XJSONException("output writer can not be null.");
+		}
+		if(JSONMetrics.off()) {
+			JSONEncoder.stringifyTo(data, out);
+			return;
+		}
+		JSONMetrics.stringifyTo("stringify", data, () -> JSONEncoder.stringifyTo(data, out));
+	}
+	
+	/**
+	 * as stringify(Object, Writer), encoded to utf-8
+	 * */
+	public static void stringify(Object data, OutputStream out) throws XJSONException  {
+		if(null == out) {
+			throw new XJSONException("output stream can not be null.");
+		}
+		if(JSONMetrics.off()) {
+			JSONEncoder.stringifyTo(data, out);
+			return;
+		}
+		JSONMetrics.stringifyTo("stringify", data, () -> JSONEncoder.stringifyTo(data, out));
+	}
+	
+	/**
+	 * rewrites the whitespace of json text as it streams from in to out,
+	 * tokens are copied verbatim and no tree is built
+	 * */
+	public static void reformat(Reader in, Writer out, XJSONFormat format) throws XJSONException  {
+		if(null == in || null == out || null == format) {
+			throw new XJSONException("reader, writer and format can not be null.");
+		}
+		JSONReformatter.reformat(in, out, format);
+	}
+	
+	/**
+	 * reformat for utf-8 bytes, bytes are never decoded
+	 * */
+	public static void reformat(InputStream in, OutputStream out, XJSONFormat format) throws XJSONException  {
+		if(null == in || null == out || null == format) {
+			throw new XJSONException("input, output and format can not be null.");
+		}
+		JSONReformatter.reformat(in, out, format);
+	}
+	
+	public static String reformat(String json, XJSONFormat format) throws XJSONException  {
+		if(null == json) {
+			throw new XJSONException("json can not be null.");
+		}
+		StringWriter out = new StringWriter(json.length());
+		reformat(new StringReader(json), out, format);
+		return out.toString();
+	}
+	
+	/**
+	 * compact binary form of data, see JSONBinaryEncoder for the layout
+	 * */
+	public static byte[] toBinary(Object data) throws XJSONException  {
+		if(JSONMetrics.off()) {
+			return JSONBinaryEncoder.encode(data);
+		}
+		return JSONMetrics.stringify("toBinary", data, true, () -> JSONBinaryEncoder.encode(data));
+	}
+	
+	/**
+	 * reads toBinary output into the tree parse(String) builds
+	 * */
+	public static Object parseBinary(byte[] data) throws XJSONException  {
+		if(null == data) {
+			throw new XJSONException("input binary json can not be null.");
+		}
+		if(JSONMetrics.off()) {
+			return JSONBinaryDecoder.decode(data);
+		}
+		return JSONMetrics.parse("parseBinary", Object.class, data, () -> JSONBinaryDecoder.decode(data));
+	}
+	
+	@SuppressWarnings("unchecked")
+	public static <T> T parseBinary(byte[] data, Class<T> clazz) throws XJSONException  {
+		Object tree = parseBinary(data);
+		if(!(tree instanceof LinkedHashMap)) {
+			throw new XJSONException("binary json is not an object");
+		}
+		return JSONReflect.reflectOneClass((LinkedHashMap<String, Object>) tree, clazz);
+	}
+	
+	public static byte[] textToBinary(String json) throws XJSONException  {
+		if(null == json || json.trim().isEmpty()) {
+			throw new XJSONException("input json string can not be null or empty.");
+		}
+		return JSONBinaryEncoder.fromText(json);
+	}
+	
+	public static String binaryToText(byte[] data) throws XJSONException  {
+		if(null == data) {
+			throw new XJSONException("input binary json can not be null.");
+		}
+		return JSONBinaryDecoder.toText(data);
+	}
+	
+	/**
+	 * rfc 8785 style output, sorted keys, normalised numbers, no whitespace
+	 * */
+	public static String stringifyCanonical(Object data) throws XJSONException  {
+		if(JSONMetrics.off()) {
+			return JSONEncoder.stringifyCanonical(data);
+		}
+		return JSONMetrics.stringify("stringifyCanonical", data, false, () -> JSONEncoder.stringifyCanonical(data));
+	}
+	
+	/**
+	 * digest of the canonical utf-8 output, usable as cache key or etag
+	 * */
+	public static byte[] hash(Object data, MessageDigest digest) throws XJSONException  {
+		return JSONEncoder.hash(data, digest);
+	}
+	
+	/**
+	 * the serializer's text is written as a json string,
+	 * setCodec writes tokens without the intermediate text
+	 * */
+	public static void setSerializer(Class<?> cls, XJSONSerializer serializer) {
+		JSONCodecs.WRITERS.put(cls,  JSONCodecs.adaptSerializer(serializer));
+	}
+	
+	/**
+	 * cls is written and read through codec instead of its fields
+	 * */
+	public static <T> void setCodec(Class<T> cls, XJSONCodec<T> codec) {
+		JSONCodecs.WRITERS.put(cls,  codec);
+		JSONCodecs.READERS.put(cls,  codec);
+		JSONParseCache.clear();
+	}
+	
+	/**
+	 * in the named view cls is encoded with the given fields only,
+	 * classes the view does not mention keep all their fields
+	 * */
+	public static void defineView(String view, Class<?> cls, String... fields) {
+		JSONEncodePlan.define(view, cls, true, fields);
+	}
+	
+	/**
+	 * in the named view cls is encoded without the given fields
+	 * */
+	public static void defineViewExcluding(String view, Class<?> cls, String... fields) {
+		JSONEncodePlan.define(view, cls, false, fields);
+	}
+	
+	/**
+	 * instances of cls are encoded once and their output reused,
+	 * only for classes whose state never changes after construction
+	 * */
+	public static void setImmutable(Class<?> cls) {
+		JSONValueCache.setImmutable(cls);
+	}
+	
+	/**
+	 * caches the encoded output of this one instance, it must not be
+	 * modified afterwards
+	 * */
+	public static void cacheValue(Object data) {
+		if(data != null) {
+			JSONValueCache.cacheValue(data);
+		}
+	}
+	
+	public static void clearValueCache() {
+		JSONValueCache.clear();
+	}
+	
+	public static void setDeserializer(Class<?> cls, XJSONDeserializer deserializer) {
+		JSONCodecs.READERS.put(cls,  JSONCodecs.adaptDeserializer(deserializer));
+		JSONParseCache.clear();
+	}
+	
+	/**
+	 * listener is called after every parse and stringify, see XJSONMetrics
+	 * */
+	public static void addListener(XJSONListener listener) {
+		if(null == listener) {
+			throw new XJSONException("listener can not be null.");
+		}
+		JSONMetrics.add(listener);
+	}
+	
+	public static void removeListener(XJSONListener listener) {
+		JSONMetrics.remove(listener);
+	}
+	
+	/**
+	 * emits json.xjson.Parse and json.xjson.Stringify JFR events, they are
+	 * recorded while a recording enables them
+	 * */
+	public static void useFlightRecorderMode(boolean mode) {
+		if(mode) {
+			JSONMetrics.add(JSONFlightEvents.INSTANCE);
+		} else {
+			JSONMetrics.remove(JSONFlightEvents.INSTANCE);
+		}
+	}
+	
+	/**
+	 * keeps the results of parseCompact, parseCompactList and of
+	 * parse(String, Class) for setImmutable classes, up to maxChars of
+	 * json text in total. identical texts then return the same shared
+	 * instance. parse(String) and parseList(String) build mutable trees
+	 * and are never cached. 0 turns the cache off
+	 * */
+	public static void useParseCache(long maxChars) {
+		JSONParseCache.configure(maxChars);
+	}
+	
+	public static XJSONCacheStats parseCacheStats() {
+		return JSONParseCache.stats();
+	}
+	
+	public static void clearParseCache() {
+		JSONParseCache.clear();
+	}
+	
+	public static void useStrictJsonMode(boolean mode) {
+		JSONReflect.strictJsonMode = mode;
+	}
+	
+	public static void useStrictClassMode(boolean mode) {
+		JSONReflect.strictClassMode = mode;
+	}
+
+	/**
+	 * string values of parseCompact become XJSONString slices decoded on
+	 * first use, instead of String copies made while parsing
+	 * */
+	public static void useLazyStringMode(boolean mode) {
+		JSONTreeParser.LAZY_STRINGS = mode;
+	}
+
+	/**
+	 * arrays and collections of at least threshold elements are encoded
+	 * in chunks on the common fork-join pool, the output is the same as
+	 * without. 0 turns it off
+	 * */
+	public static void useParallelMode(int threshold) {
+		useParallelMode(threshold, ForkJoinPool.commonPool());
+	}
+	
+	public static void useParallelMode(int threshold, ForkJoinPool pool) {
+		if(null == pool) {
+			throw new XJSONException("fork-join pool can not be null.");
+		}
+		JSONParallel.POOL = pool;
+		JSONParallel.THRESHOLD = Math.max(0, threshold);
+	}
+
+	public static void useBeautifyMode(boolean mode) {
+		JSONEncoder.BEAUTIFY = mode;
+	}
+
+	/**
+	 * class fields holding nulls, empties or defaults are left out,
+	 * see XJSONOmit. canonical output and hash always keep every field
+	 * */
+	public static void useOmitMode(XJSONOmit mode) {
+		JSONEncoder.OMIT = mode == null ? XJSONOmit.NONE : mode;
+	}
+
+	/**
+	 * map keys are written in ascending order instead of iteration order
+	 * */
+	public static void useSortedKeysMode(boolean mode) {
+		JSONEncoder.SORT_KEYS = mode;
+	}
+}
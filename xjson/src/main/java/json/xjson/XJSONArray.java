@@ -0,0 +1,152 @@
+package json.xjson;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+/**
+ * read only json array on a plain Object[], numbers are stored
+ * unboxed in a side array and only boxed when read through the List view.
+ * arrays holding nothing but integers keep a bare long[], arrays of
+ * nothing but fractions a bare double[], items is null for both.
+ * */
+public final class XJSONArray extends AbstractList<Object> implements RandomAccess {
+
+	static final XJSONArray EMPTY = new XJSONArray(new Object[0], null);
+
+	final Object[] items;
+	final long[] prims;
+	final double[] doubles;
+
+	XJSONArray(Object[] items, long[] prims) {
+		this.items = items;
+		this.prims = prims;
+		this.doubles = null;
+	}
+
+	XJSONArray(long[] longs) {
+		this.items = null;
+		this.prims = longs;
+		this.doubles = null;
+	}
+
+	XJSONArray(double[] doubles) {
+		this.items = null;
+		this.prims = null;
+		this.doubles = doubles;
+	}
+
+	@Override
+	public int size() {
+		if(items != null) {
+			return items.length;
+		}
+		return doubles != null ? doubles.length : prims.length;
+	}
+
+	@Override
+	public Object get(int i) {
+		if(items != null) {
+			return XJSONObject.box(items[i], prims, i);
+		}
+		if(doubles != null) {
+			return doubles[i];
+		}
+		long v = prims[i];
+		if(v >= Integer.MIN_VALUE && v <= Integer.MAX_VALUE) {
+			return (int) v;
+		}
+		return v;
+	}
+
+	/**
+	 * true when every element is an integer held in a long[]
+	 * */
+	public boolean isLongArray() {
+		return items == null && doubles == null;
+	}
+
+	/**
+	 * true when every element is a number held in a double[]
+	 * */
+	public boolean isDoubleArray() {
+		return doubles != null;
+	}
+
+	public boolean isNumber(int i) {
+		if(items == null) {
+			return true;
+		}
+		Object v = items[i];
+		return v == XJSONObject.INT_SLOT || v == XJSONObject.LONG_SLOT ||
+				v == XJSONObject.DOUBLE_SLOT || v instanceof Number;
+	}
+
+	public long[] toLongArray() {
+		if(isLongArray()) {
+			return prims.clone();
+		}
+		long[] ret = new long[size()];
+		for(int i = 0; i < ret.length; i++) {
+			ret[i] = getLong(i);
+		}
+		return ret;
+	}
+
+	public double[] toDoubleArray() {
+		if(doubles != null) {
+			return doubles.clone();
+		}
+		double[] ret = new double[size()];
+		for(int i = 0; i < ret.length; i++) {
+			ret[i] = getDouble(i);
+		}
+		return ret;
+	}
+
+	public long getLong(int i) {
+		if(items == null) {
+			return doubles != null ? (long) doubles[i] : prims[i];
+		}
+		Object v = items[i];
+		if(v == XJSONObject.INT_SLOT || v == XJSONObject.LONG_SLOT) {
+			return prims[i];
+		}
+		if(v == XJSONObject.DOUBLE_SLOT) {
+			return (long) Double.longBitsToDouble(prims[i]);
+		}
+		if(v instanceof Number) {
+			return ((Number) v).longValue();
+		}
+		throw new XJSONException("element " + i + " is not a number");
+	}
+
+	public double getDouble(int i) {
+		if(items == null) {
+			return doubles != null ? doubles[i] : prims[i];
+		}
+		Object v = items[i];
+		if(v == XJSONObject.INT_SLOT || v == XJSONObject.LONG_SLOT) {
+			return prims[i];
+		}
+		if(v == XJSONObject.DOUBLE_SLOT) {
+			return Double.longBitsToDouble(prims[i]);
+		}
+		if(v instanceof Number) {
+			return ((Number) v).doubleValue();
+		}
+		throw new XJSONException("element " + i + " is not a number");
+	}
+
+	public String getString(int i) {
+		Object v = get(i);
+		return v == null ? null : v.toString();
+	}
+
+	public XJSONObject getObject(int i) {
+		return (XJSONObject) get(i);
+	}
+
+	public XJSONArray getArray(int i) {
+		return (XJSONArray) get(i);
+	}
+}
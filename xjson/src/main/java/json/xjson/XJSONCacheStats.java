@@ -0,0 +1,55 @@
+package json.xjson;
+
+/**
+ * snapshot of the parse cache counters, see XJSON.useParseCache
+ * */
+public final class XJSONCacheStats {
+	
+	private final long hits;
+	private final long misses;
+	private final long evictions;
+	private final long entries;
+	private final long weight;
+	
+	XJSONCacheStats(long hits, long misses, long evictions, long entries, long weight) {
+		this.hits = hits;
+		this.misses = misses;
+		this.evictions = evictions;
+		this.entries = entries;
+		this.weight = weight;
+	}
+	
+	public long hits() {
+		return hits;
+	}
+	
+	public long misses() {
+		return misses;
+	}
+	
+	public double hitRate() {
+		long total = hits + misses;
+		return total == 0 ? 0 : (double) hits / total;
+	}
+	
+	public long evictions() {
+		return evictions;
+	}
+	
+	public long entries() {
+		return entries;
+	}
+	
+	/**
+	 * chars of cached json text plus a fixed overhead per entry
+	 * */
+	public long weight() {
+		return weight;
+	}
+	
+	@Override
+	public String toString() {
+		return "hits=" + hits + " misses=" + misses + " evictions=" + evictions + 
+				" entries=" + entries + " weight=" + weight;
+	}
+}
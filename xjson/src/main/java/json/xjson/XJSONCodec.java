@@ -0,0 +1,15 @@
+package json.xjson;
+
+/**
+ * typed encoding and decoding of one class. write emits tokens through
+ * the generator straight into the output, read pulls tokens from the
+ * parsed value, numbers arrive as numbers and are never turned back
+ * into text. registered with XJSON.setCodec.
+ * */
+public interface XJSONCodec<T> {
+	
+	void write(XJSONGenerator out, T value);
+	
+	T read(XJSONReader in);
+
+}
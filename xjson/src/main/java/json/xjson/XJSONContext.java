@@ -0,0 +1,61 @@
+package json.xjson;
+
+/**
+ * reusable state for parsing many documents on one thread. the context
+ * keeps the input buffer, the parser stacks, a table of member names
+ * and every container it has handed out. reset() takes all of it back,
+ * so a steady stream of similar documents parses with next to no
+ * allocation.
+ * trees read through a context are only valid until its next reset(),
+ * after that their nodes are refilled by the following documents.
+ * a context is not thread safe.
+ * */
+public final class XJSONContext {
+
+	static final int DEFAULT_INPUT = 4096;
+
+	/**
+	 * larger input buffers are dropped on reset instead of kept
+	 * */
+	static final int MAX_RETAINED_INPUT = 1 << 20;
+
+	final JSONTreeParser parser = new JSONTreeParser();
+	final JSONNodePool pool = new JSONNodePool();
+	final JSONKeyTable keys = new JSONKeyTable();
+
+	char[] input = new char[DEFAULT_INPUT];
+	int used;
+
+	public XJSONContext() {
+		parser.pool = pool;
+		parser.keyTable = keys;
+	}
+
+	/**
+	 * documents are copied one after another into the input buffer,
+	 * lazy string slices of earlier documents stay intact until reset
+	 * */
+	JSONTreeParser begin(String json) {
+		int len = json.length();
+		if(used + len > input.length) {
+			input = new char[Math.max(input.length << 1, len)];
+			used = 0;
+		}
+		json.getChars(0, len, input, used);
+		parser.reset(input, used, used + len);
+		used += len;
+		return parser;
+	}
+
+	/**
+	 * reclaims the buffers and nodes of every document read since the
+	 * last reset, trees read before it must no longer be used
+	 * */
+	public void reset() {
+		used = 0;
+		if(input.length > MAX_RETAINED_INPUT) {
+			input = new char[DEFAULT_INPUT];
+		}
+		pool.reset();
+	}
+}
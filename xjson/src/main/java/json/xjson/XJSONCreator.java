@@ -0,0 +1,21 @@
+package json.xjson;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * marks the constructor or static factory used to bind a json object
+ * to an immutable class, value names the json member of each parameter
+ * in order. without names the parameter names are used, which needs the
+ * class compiled with -parameters.
+ * records are bound through their canonical constructor without it.
+ * */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.CONSTRUCTOR, ElementType.METHOD})
+public @interface XJSONCreator {
+
+	String[] value() default {};
+
+}
@@ -0,0 +1,154 @@
+package json.xjson;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+
+/**
+ * handle of a document or of one of its containers living in an
+ * XJSONDocumentStore. members are found by walking the tape on every
+ * access, nothing is decoded except the value asked for.
+ * a path is a list of member names and array indexes, e.g.
+ * get("items", 0, "sku").
+ * */
+public final class XJSONDocument {
+
+	final XJSONDocumentStore store;
+	final ByteBuffer tape;
+	final int offset;
+
+	XJSONDocument(XJSONDocumentStore store, ByteBuffer tape, int offset) {
+		this.store = store;
+		this.tape = tape;
+		this.offset = offset;
+	}
+
+	/**
+	 * tape offset of the value at path, -1 when it is missing
+	 * */
+	int locate(Object[] path) throws XJSONException {
+		store.checkOpen();
+		int at = offset;
+		for(int i = 0; i < path.length && at >= 0; i++) {
+			Object p = path[i];
+			if(p instanceof String) {
+				at = JSONTape.member(tape, at, ((String) p).getBytes(StandardCharsets.UTF_8));
+			} else if(p instanceof Integer) {
+				at = JSONTape.element(tape, at, (Integer) p);
+			} else {
+				throw new XJSONException("path element must be a String or an Integer, got " + p);
+			}
+		}
+		return at;
+	}
+
+	public boolean isObject() throws XJSONException {
+		store.checkOpen();
+		return tape.get(offset) == JSONTape.OBJECT;
+	}
+
+	public boolean isArray() throws XJSONException {
+		store.checkOpen();
+		return tape.get(offset) == JSONTape.ARRAY;
+	}
+
+	/**
+	 * member or element count
+	 * */
+	public int size() throws XJSONException {
+		store.checkOpen();
+		return tape.getInt(offset + 1);
+	}
+
+	public boolean contains(Object... path) throws XJSONException {
+		return locate(path) >= 0;
+	}
+
+	/**
+	 * the value at path, containers are returned as XJSONDocument
+	 * handles over the same tape, null when missing
+	 * */
+	public Object get(Object... path) throws XJSONException {
+		int at = locate(path);
+		if(at < 0) {
+			return null;
+		}
+		byte tag = tape.get(at);
+		if(tag == JSONTape.OBJECT || tag == JSONTape.ARRAY) {
+			return new XJSONDocument(store, tape, at);
+		}
+		return JSONTape.read(tape, at);
+	}
+
+	public String getString(Object... path) throws XJSONException {
+		Object v = get(path);
+		return v == null ? null : v.toString();
+	}
+
+	/**
+	 * number at path, 0 when missing
+	 * */
+	public long getLong(Object... path) throws XJSONException {
+		int at = locate(path);
+		if(at < 0) {
+			return 0;
+		}
+		switch(tape.get(at)) {
+		case JSONTape.INT:
+			return tape.getInt(at + 1);
+		case JSONTape.LONG:
+			return tape.getLong(at + 1);
+		case JSONTape.DOUBLE:
+			return (long) tape.getDouble(at + 1);
+		default:
+			throw new XJSONException("value at path is not a number");
+		}
+	}
+
+	public double getDouble(Object... path) throws XJSONException {
+		int at = locate(path);
+		if(at < 0) {
+			return 0;
+		}
+		switch(tape.get(at)) {
+		case JSONTape.INT:
+			return tape.getInt(at + 1);
+		case JSONTape.LONG:
+			return tape.getLong(at + 1);
+		case JSONTape.DOUBLE:
+			return tape.getDouble(at + 1);
+		default:
+			throw new XJSONException("value at path is not a number");
+		}
+	}
+
+	/**
+	 * copies the object onto the heap as XJSON.parse would build it
+	 * */
+	public LinkedHashMap<String, Object> toMap() throws XJSONException {
+		if(!isObject()) {
+			throw new XJSONException("document is not an object");
+		}
+		return JSONTape.readMap(tape, offset);
+	}
+
+	public LinkedList<Object> toList() throws XJSONException {
+		if(!isArray()) {
+			throw new XJSONException("document is not an array");
+		}
+		return JSONTape.readList(tape, offset);
+	}
+
+	/**
+	 * binds the object to clazz through the same reflection as
+	 * XJSON.parse(String, Class)
+	 * */
+	public <T> T toClass(Class<T> clazz) throws XJSONException {
+		return JSONReflect.reflectOneClass(toMap(), clazz);
+	}
+
+	public <T> LinkedList<T> toClassList(Class<T> clazz) throws XJSONException {
+		return JSONReflect.reflectOneList(toList(), clazz);
+	}
+}
@@ -0,0 +1,113 @@
+package json.xjson;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * arena of off-heap documents. parsed documents are written as binary
+ * tapes into direct buffer slabs, the heap only keeps one small
+ * XJSONDocument handle per document.
+ * close() ends the arena, every document of the store fails from then on
+ * and the slabs are released once the handles are unreachable, a direct
+ * buffer can not be freed explicitly.
+ * adding is synchronized, reading documents needs no locking.
+ * */
+public final class XJSONDocumentStore implements AutoCloseable {
+
+	static final int DEFAULT_SLAB = 1 << 20;
+
+	final int slabSize;
+	final XJSONContext ctx = new XJSONContext();
+	final JSONTape writer = new JSONTape();
+
+	ByteBuffer slab;
+	int used;
+	long bytes;
+	int documents;
+	volatile boolean closed;
+
+	public XJSONDocumentStore() {
+		this(DEFAULT_SLAB);
+	}
+
+	/**
+	 * documents larger than slabSize get a direct buffer of their own
+	 * */
+	public XJSONDocumentStore(int slabSize) {
+		if(slabSize < JSONTape.HEADER) {
+			throw new IllegalArgumentException("slab size " + slabSize);
+		}
+		this.slabSize = slabSize;
+	}
+
+	/**
+	 * parses json, an object or an array, into the store
+	 * */
+	public synchronized XJSONDocument add(String json) throws XJSONException {
+		checkOpen();
+		if(null == json || json.trim().isEmpty()) {
+			throw new XJSONException("input json string can not be null or empty.");
+		}
+		writer.reset();
+		try {
+			JSONTreeParser parser = ctx.begin(json);
+			parser.skipSpace();
+			if(parser.pos < parser.end && parser.chars[parser.pos] == JSONTreeParser.BRACES_L) {
+				writer.writeArray(parser.readDocumentArray());
+			} else {
+				writer.writeObject(parser.readDocumentObject());
+			}
+		} finally {
+			ctx.reset();
+		}
+		int len = writer.len;
+		ByteBuffer target;
+		int at;
+		if(len > slabSize) {
+			target = allocate(len);
+			at = 0;
+		} else {
+			if(slab == null || used + len > slab.capacity()) {
+				slab = allocate(slabSize);
+				used = 0;
+			}
+			target = slab;
+			at = used;
+			used += len;
+		}
+		target.put(at, writer.buf, 0, len);
+		++documents;
+		return new XJSONDocument(this, target, at);
+	}
+
+	ByteBuffer allocate(int capacity) {
+		bytes += capacity;
+		return ByteBuffer.allocateDirect(capacity).order(ByteOrder.LITTLE_ENDIAN);
+	}
+
+	void checkOpen() throws XJSONException {
+		if(closed) {
+			throw new XJSONException("document store is closed");
+		}
+	}
+
+	/**
+	 * documents added so far
+	 * */
+	public synchronized int size() {
+		return documents;
+	}
+
+	/**
+	 * direct memory reserved by the slabs
+	 * */
+	public synchronized long offHeapBytes() {
+		return bytes;
+	}
+
+	@Override
+	public synchronized void close() {
+		closed = true;
+		slab = null;
+	}
+}
@@ -0,0 +1,178 @@
+package json.xjson;
+
+import java.util.Arrays;
+
+/**
+ * one instrumented call. depth and elements scan the json text on first
+ * use, they are -1 for binary input or output, for output streamed to
+ * a Writer or OutputStream and for failed calls
+ * */
+public final class XJSONEvent {
+	
+	private final String operation;
+	private final Class<?> type;
+	private final Object text;
+	private final long size;
+	private final long nanos;
+	private final Throwable error;
+	private int depth = -2;
+	private int elements;
+	
+	XJSONEvent(String operation, Class<?> type, Object text, long size, long nanos, Throwable error) {
+		this.operation = operation;
+		this.type = type;
+		this.text = text;
+		this.size = size;
+		this.nanos = nanos;
+		this.error = error;
+	}
+	
+	/**
+	 * name of the XJSON method, e.g. parseList or stringifyToBytes
+	 * */
+	public String operation() {
+		return operation;
+	}
+	
+	/**
+	 * class parsed to, or class of the stringified object
+	 * */
+	public Class<?> type() {
+		return type;
+	}
+	
+	/**
+	 * chars of json text, or bytes for byte[] input and output and for
+	 * output streamed to an OutputStream
+	 * */
+	public long size() {
+		return size;
+	}
+	
+	public long nanos() {
+		return nanos;
+	}
+	
+	public Throwable error() {
+		return error;
+	}
+	
+	public boolean failed() {
+		return error != null;
+	}
+	
+	/**
+	 * deepest nesting of objects and arrays
+	 * */
+	public int depth() {
+		scan();
+		return depth;
+	}
+	
+	/**
+	 * values in the document, containers included
+	 * */
+	public int elements() {
+		scan();
+		return elements;
+	}
+	
+	private void scan() {
+		if(depth != -2) {
+			return;
+		}
+		depth = -1;
+		elements = -1;
+		if(error != null) {
+			return;
+		}
+		if(text instanceof String) {
+			scan((String) text, null, ((String) text).length());
+		} else if(text instanceof byte[]) {
+			scan(null, (byte[]) text, ((byte[]) text).length);
+		}
+	}
+	
+	/**
+	 * scans the string's chars or the bytes in place, structural chars
+	 * are ascii so utf-8 bytes and chars scan alike. chars are written
+	 * as a single quoted literal, which may hold a quote.
+	 * */
+	private void scan(String s, byte[] b, int n) {
+		boolean[] object = new boolean[16];
+		int d = 0, max = 0, count = 0;
+		boolean expect = true, key = false, str = false;
+		for(int i = 0; i < n; i++) {
+			char c = at(s, b, n, i);
+			if(str) {
+				if(c == '\\') {
+					i++;
+				} else if(c == '"') {
+					str = false;
+				}
+				continue;
+			}
+			switch(c) {
+			case ' ':
+			case '\t':
+			case '\r':
+			case '\n':
+				continue;
+			case ',':
+				expect = true;
+				key = object[d];
+				continue;
+			case ':':
+				expect = true;
+				key = false;
+				continue;
+			case ']':
+			case '}':
+				d--;
+				expect = false;
+				key = false;
+				continue;
+			default:
+			}
+			if(expect && !key) {
+				count++;
+			}
+			expect = false;
+			if(c == '{' || c == '[') {
+				if(++d == object.length) {
+					object = Arrays.copyOf(object, d << 1);
+				}
+				object[d] = c == '{';
+				max = Math.max(max, d);
+				expect = true;
+				key = object[d];
+			} else if(c == '"') {
+				str = true;
+			} else if(c == '\'') {
+				// 'c' or '', the char is never escaped and is up to 3 utf-8 bytes
+				char lead = at(s, b, n, i + 1);
+				int w = s != null || lead < 0xc0 ? 1 : lead < 0xe0 ? 2 : 3;
+				if(at(s, b, n, i + 1 + w) == '\'') {
+					i += 1 + w;
+				} else if(lead == '\'') {
+					i++;
+				}
+			}
+		}
+		depth = max;
+		elements = count;
+	}
+	
+	private static char at(String s, byte[] b, int n, int i) {
+		if(i >= n) {
+			return 0;
+		}
+		return s != null ? s.charAt(i) : (char) (b[i] & 0xff);
+	}
+	
+	@Override
+	public String toString() {
+		return operation + "(" + (type == null ? "null" : type.getName()) + ") " + size + " in " + nanos + "ns" + 
+				(error == null ? "" : " failed: " + error);
+	}
+}
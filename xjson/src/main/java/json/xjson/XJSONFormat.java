@@ -0,0 +1,45 @@
+package json.xjson;
+
+/**
+ * layout for XJSON.reformat. a new instance minifies, indent or
+ * indentWithTabs turn on one member per line, e.g.
+ * new XJSONFormat().indent(4).spaceAfterColon(true)
+ * */
+public final class XJSONFormat {
+	
+	String indent = null;
+	boolean spaceAfterColon;
+	String lineSeparator = "\n";
+	
+	/**
+	 * spaces per nesting level, 0 minifies
+	 * */
+	public XJSONFormat indent(int spaces) {
+		if(spaces < 0) {
+			throw new XJSONException("indent can not be negative.");
+		}
+		indent = spaces == 0 ? null : " ".repeat(spaces);
+		return this;
+	}
+	
+	public XJSONFormat indentWithTabs() {
+		indent = "\t";
+		return this;
+	}
+	
+	public XJSONFormat spaceAfterColon(boolean space) {
+		spaceAfterColon = space;
+		return this;
+	}
+	
+	/**
+	 * written between lines, and between top level values when minifying
+	 * */
+	public XJSONFormat lineSeparator(String separator) {
+		if(null == separator) {
+			throw new XJSONException("line separator can not be null.");
+		}
+		lineSeparator = separator;
+		return this;
+	}
+}
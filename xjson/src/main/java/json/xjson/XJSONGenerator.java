@@ -0,0 +1,156 @@
+package json.xjson;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * token writer handed to XJSONCodec.write, every call appends to the
+ * output of the running stringify. commas and colons are placed by
+ * the generator, writeValue encodes any nested value the normal way.
+ * */
+public final class XJSONGenerator {
+
+	final JSONWriter out;
+	final int tabCount;
+
+	/**
+	 * per open container, true until its first value
+	 * */
+	boolean[] first = new boolean[8];
+	int depth;
+	boolean afterName;
+
+	XJSONGenerator(JSONWriter out, int tabCount) {
+		this.out = out;
+		this.tabCount = tabCount;
+	}
+
+	void beforeValue() {
+		if(afterName) {
+			afterName = false;
+			return;
+		}
+		if(depth > 0) {
+			if(!first[depth]) {
+				out.append(JSONEncoder.COMMA);
+			}
+			first[depth] = false;
+		}
+	}
+
+	void open(char c) {
+		beforeValue();
+		out.append(c);
+		if(++depth == first.length) {
+			boolean[] f = new boolean[depth << 1];
+			System.arraycopy(first, 0, f, 0, depth);
+			first = f;
+		}
+		first[depth] = true;
+	}
+
+	void close(char c) throws XJSONException {
+		if(depth == 0 || afterName) {
+			throw new XJSONException("unbalanced " + c + " in codec output");
+		}
+		--depth;
+		out.append(c);
+	}
+
+	public XJSONGenerator beginObject() {
+		open(JSONEncoder.B_BRACES_L);
+		return this;
+	}
+
+	public XJSONGenerator endObject() throws XJSONException {
+		close(JSONEncoder.B_BRACES_R);
+		return this;
+	}
+
+	public XJSONGenerator beginArray() {
+		open(JSONEncoder.BRACES_L);
+		return this;
+	}
+
+	public XJSONGenerator endArray() throws XJSONException {
+		close(JSONEncoder.BRACES_R);
+		return this;
+	}
+
+	public XJSONGenerator name(String name) {
+		beforeValue();
+		out.append(JSONEncoder.QUOTE);
+		JSONEncoder.formatString(out, name);
+		out.append(JSONEncoder.QUOTE).append(JSONEncoder.COLON);
+		afterName = true;
+		return this;
+	}
+
+	public XJSONGenerator writeNull() {
+		beforeValue();
+		out.append("null");
+		return this;
+	}
+
+	public XJSONGenerator writeBoolean(boolean v) {
+		beforeValue();
+		out.append(v ? "true" : "false");
+		return this;
+	}
+
+	public XJSONGenerator writeInt(int v) {
+		beforeValue();
+		out.writeInt(v);
+		return this;
+	}
+
+	public XJSONGenerator writeLong(long v) {
+		beforeValue();
+		out.writeLong(v);
+		return this;
+	}
+
+	public XJSONGenerator writeDouble(double v) {
+		beforeValue();
+		out.writeDouble(v);
+		return this;
+	}
+
+	public XJSONGenerator writeNumber(BigInteger v) {
+		beforeValue();
+		out.writeBigInteger(v);
+		return this;
+	}
+
+	public XJSONGenerator writeNumber(BigDecimal v) {
+		beforeValue();
+		out.writeBigDecimal(v);
+		return this;
+	}
+
+	public XJSONGenerator writeString(String v) {
+		if(v == null) {
+			return writeNull();
+		}
+		beforeValue();
+		out.append(JSONEncoder.QUOTE);
+		JSONEncoder.formatString(out, v);
+		out.append(JSONEncoder.QUOTE);
+		return this;
+	}
+
+	/**
+	 * any value, encoded as stringify would encode it
+	 * */
+	public XJSONGenerator writeValue(Object v) throws XJSONException {
+		beforeValue();
+		JSONEncoder.formatObject(out, v, tabCount + depth, true);
+		return this;
+	}
+
+	void finish() throws XJSONException {
+		if(depth != 0 || afterName) {
+			throw new XJSONException("codec left an unfinished value");
+		}
+	}
+}
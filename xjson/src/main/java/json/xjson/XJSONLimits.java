@@ -0,0 +1,58 @@
+package json.xjson;
+
+/**
+ * bounds for XJSON.stringify(Object, XJSONLimits), e.g.
+ * new XJSONLimits().maxBytes(4096).maxElements(50).maxStringLength(200).
+ * encoding stops at whichever bound is reached first and the cut part
+ * is marked with "...(truncated)", the rest of the graph is not visited.
+ * every bound is unlimited unless set, except maxDepth
+ * */
+public final class XJSONLimits {
+	
+	int maxBytes = Integer.MAX_VALUE;
+	int maxDepth = JSONTreeParser.MAX_DEPTH;
+	int maxElements = Integer.MAX_VALUE;
+	int maxStringLength = Integer.MAX_VALUE;
+	
+	/**
+	 * utf-8 bytes of the output, it may run over by one number or date
+	 * and the closing brackets. raw fragments and codec output that do
+	 * not fit are replaced by the marker
+	 * */
+	public XJSONLimits maxBytes(int n) {
+		maxBytes = check(n);
+		return this;
+	}
+	
+	/**
+	 * containers nested deeper are replaced by the marker, each Optional
+	 * or Supplier unwrapped counts as a level
+	 * */
+	public XJSONLimits maxDepth(int n) {
+		maxDepth = check(n);
+		return this;
+	}
+	
+	/**
+	 * elements of an array or members of an object or map
+	 * */
+	public XJSONLimits maxElements(int n) {
+		maxElements = check(n);
+		return this;
+	}
+	
+	/**
+	 * chars of a string value or map key, longer ones are cut
+	 * */
+	public XJSONLimits maxStringLength(int n) {
+		maxStringLength = check(n);
+		return this;
+	}
+	
+	static int check(int n) {
+		if(n < 0) {
+			throw new XJSONException("limit can not be negative.");
+		}
+		return n;
+	}
+}
@@ -0,0 +1,332 @@
+package json.xjson;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * writes records as json lines, one compact document per line.
+ * records are encoded to utf-8 straight into one of two large buffers,
+ * a full buffer is written by a background thread while the other one
+ * fills, so every write call carries a whole batch of records. only
+ * whole records are handed off, a record that fails while encoding is
+ * dropped without a trace in the output.
+ * with gzip the compression runs on the background thread as well.
+ * writing is synchronized, an io error of the background thread is
+ * thrown by the next write, flush or close.
+ * */
+public final class XJSONLinesWriter implements AutoCloseable {
+
+	static final int DEFAULT_BUFFER = 1 << 20;
+	static final int GZIP_BUFFER = 1 << 16;
+	static final byte[] END = new byte[0];
+
+	final WritableByteChannel channel;
+	final OutputStream stream;
+	final int bufferSize;
+	final BlockingQueue<byte[]> free = new ArrayBlockingQueue<>(2);
+	final BlockingQueue<Object[]> full = new ArrayBlockingQueue<>(2);
+	final JSONWriter out = new JSONWriter(JSONByteSink.DEFAULT_CHUNK);
+	final JSONByteSink sink;
+	final Thread flusher;
+
+	byte[] buf;
+	int pos;
+	/**
+	 * start of the record being encoded, bytes before it are complete lines
+	 * */
+	int mark;
+	long records;
+	long bytes;
+	boolean closed;
+	volatile Throwable failure;
+
+	public XJSONLinesWriter(OutputStream out) throws XJSONException {
+		this(out, false);
+	}
+
+	public XJSONLinesWriter(OutputStream out, boolean gzip) throws XJSONException {
+		this(null, out, gzip, DEFAULT_BUFFER);
+	}
+
+	public XJSONLinesWriter(WritableByteChannel channel, boolean gzip) throws XJSONException {
+		this(channel, gzip, DEFAULT_BUFFER);
+	}
+
+	/**
+	 * bufferSize bytes are collected before each write to channel
+	 * */
+	public XJSONLinesWriter(WritableByteChannel channel, boolean gzip, int bufferSize) throws XJSONException {
+		this(channel, null, gzip, bufferSize);
+	}
+
+	XJSONLinesWriter(WritableByteChannel channel, OutputStream stream, boolean gzip, int bufferSize) {
+		if(null == channel && null == stream) {
+			throw new XJSONException("output can not be null.");
+		}
+		if(bufferSize < JSONByteSink.DEFAULT_CHUNK) {
+			throw new XJSONException("buffer size must be at least " + JSONByteSink.DEFAULT_CHUNK + ".");
+		}
+		this.bufferSize = bufferSize;
+		OutputStream base = stream != null ? stream : Channels.newOutputStream(channel);
+		if(gzip) {
+			try {
+				this.stream = new GZIPOutputStream(base, GZIP_BUFFER, true);
+			} catch (IOException e) {
+				throw new XJSONException(e);
+			}
+			this.channel = null;
+		} else {
+			this.stream = stream;
+			this.channel = channel;
+		}
+		buf = new byte[bufferSize];
+		free.add(new byte[bufferSize]);
+		this.out.beautify = false;
+		this.out.sink = sink = new JSONByteSink() {
+			@Override
+			void writeBytes(byte[] b, int offset, int len) {
+				put(b, offset, len);
+			}
+		};
+		flusher = new Thread(this::drain, "xjson-lines");
+		flusher.setDaemon(true);
+		flusher.start();
+	}
+
+	/**
+	 * appends data as one line
+	 * */
+	public synchronized void write(Object data) throws XJSONException {
+		checkOpen();
+		mark = pos;
+		out.sortKeys = JSONEncoder.SORT_KEYS;
+		out.omit = JSONEncoder.OMIT.ordinal();
+		try {
+			JSONEncoder.formatObject(out, data, 0, true);
+			out.flush();
+			sink.finish();
+		} catch (RuntimeException e) {
+			// none of the record was handed off, so dropping it leaves whole lines
+			out.count = 0;
+			sink.pos = 0;
+			sink.high = 0;
+			pos = mark;
+			throw e;
+		}
+		if(pos == buf.length) {
+			spill();
+		}
+		buf[pos++] = '\n';
+		mark = pos;
+		records++;
+		if(pos >= bufferSize) {
+			handOff();
+		}
+	}
+
+	/**
+	 * one line per element of an Iterable, Iterator, Stream or array
+	 * */
+	public synchronized void writeAll(Object sequence) throws XJSONException {
+		Iterator<?> it = sequence instanceof Iterable ? ((Iterable<?>) sequence).iterator() : 
+				JSONEncoder.sequence(sequence);
+		if(it == null && sequence instanceof Object[]) {
+			for(Object o: (Object[]) sequence) {
+				write(o);
+			}
+			return;
+		}
+		if(it == null) {
+			throw new XJSONException("cannot write " + sequence + " as json lines.");
+		}
+		while(it.hasNext()) {
+			write(it.next());
+		}
+	}
+
+	public synchronized long records() {
+		return records;
+	}
+
+	/**
+	 * uncompressed bytes handed to the background thread so far
+	 * */
+	public synchronized long bytes() {
+		return bytes;
+	}
+
+	/**
+	 * writes the buffered records and waits until they reached the output
+	 * */
+	public synchronized void flush() throws XJSONException {
+		checkOpen();
+		if(pos > 0) {
+			handOff();
+		}
+		// both buffers back in hand means the background thread is idle
+		byte[] other = take(free);
+		try {
+			if(stream != null) {
+				stream.flush();
+			}
+		} catch (IOException e) {
+			throw new XJSONException(e);
+		} finally {
+			free.add(other);
+		}
+		checkFailure();
+	}
+
+	/**
+	 * writes what is left, ends the gzip stream and closes the output
+	 * */
+	@Override
+	public synchronized void close() throws XJSONException {
+		if(closed) {
+			return;
+		}
+		closed = true;
+		try {
+			if(pos > 0 && failure == null) {
+				submit(buf, pos);
+			}
+			submit(END, 0);
+			flusher.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new XJSONException(e);
+		}
+		try {
+			if(stream != null) {
+				stream.close();
+			} else {
+				channel.close();
+			}
+		} catch (IOException e) {
+			if(failure == null) {
+				failure = e;
+			}
+		}
+		checkFailure();
+	}
+
+	void put(byte[] b, int offset, int len) {
+		while(len > 0) {
+			if(pos == buf.length) {
+				spill();
+			}
+			int n = Math.min(len, buf.length - pos);
+			System.arraycopy(b, offset, buf, pos, n);
+			pos += n;
+			offset += n;
+			len -= n;
+		}
+	}
+
+	void handOff() {
+		submit(buf, pos);
+		buf = take(free);
+		pos = 0;
+		mark = 0;
+		checkFailure();
+	}
+
+	/**
+	 * buffer full in the middle of a record, the complete lines before it
+	 * are handed off and the partial record moves to the next buffer. a
+	 * record larger than the buffer grows it instead.
+	 * */
+	void spill() {
+		if(mark == 0) {
+			buf = Arrays.copyOf(buf, buf.length << 1);
+			return;
+		}
+		byte[] next = take(free);
+		int partial = pos - mark;
+		if(next.length < partial) {
+			next = new byte[buf.length];
+		}
+		System.arraycopy(buf, mark, next, 0, partial);
+		submit(buf, mark);
+		buf = next;
+		pos = partial;
+		mark = 0;
+		checkFailure();
+	}
+
+	void submit(byte[] b, int len) {
+		bytes += len;
+		try {
+			full.put(new Object[] {b, len});
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new XJSONException(e);
+		}
+	}
+
+	byte[] take(BlockingQueue<byte[]> queue) {
+		try {
+			return queue.take();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new XJSONException(e);
+		}
+	}
+
+	/**
+	 * background loop, after a failure buffers are only recycled so the
+	 * writing thread never blocks
+	 * */
+	void drain() {
+		for(;;) {
+			Object[] batch;
+			try {
+				batch = full.take();
+			} catch (InterruptedException e) {
+				return;
+			}
+			byte[] b = (byte[]) batch[0];
+			if(b == END) {
+				return;
+			}
+			int len = (Integer) batch[1];
+			if(failure == null) {
+				try {
+					if(channel != null) {
+						ByteBuffer bb = ByteBuffer.wrap(b, 0, len);
+						while(bb.hasRemaining()) {
+							channel.write(bb);
+						}
+					} else {
+						stream.write(b, 0, len);
+					}
+				} catch (IOException | RuntimeException e) {
+					failure = e;
+				}
+			}
+			free.add(b);
+		}
+	}
+
+	void checkOpen() {
+		if(closed) {
+			throw new XJSONException("json lines writer is closed.");
+		}
+		checkFailure();
+	}
+
+	void checkFailure() {
+		Throwable e = failure;
+		if(e != null) {
+			throw new XJSONException(e);
+		}
+	}
+}
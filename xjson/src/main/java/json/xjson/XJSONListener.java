@@ -0,0 +1,15 @@
+package json.xjson;
+
+/**
+ * receives one event per parse or stringify call once registered with
+ * XJSON.addListener, callbacks run on the calling thread
+ * */
+public interface XJSONListener {
+	
+	default void onParse(XJSONEvent event) {
+	}
+	
+	default void onStringify(XJSONEvent event) {
+	}
+	
+}
@@ -0,0 +1,122 @@
+package json.xjson;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * a listener counting calls, time, size and errors per class, e.g.
+ * XJSONMetrics m = new XJSONMetrics(); XJSON.addListener(m);
+ * counters are LongAdders, so concurrent callers do not contend
+ * */
+public final class XJSONMetrics implements XJSONListener {
+	
+	static final class Counters {
+		final LongAdder calls = new LongAdder();
+		final LongAdder nanos = new LongAdder();
+		final LongAdder size = new LongAdder();
+		final LongAdder errors = new LongAdder();
+		
+		void add(XJSONEvent e) {
+			calls.increment();
+			nanos.add(e.nanos());
+			size.add(e.size());
+			if(e.failed()) {
+				errors.increment();
+			}
+		}
+	}
+	
+	private final Map<Class<?>, Counters> decodes = new ConcurrentHashMap<>();
+	private final Map<Class<?>, Counters> encodes = new ConcurrentHashMap<>();
+	
+	@Override
+	public void onParse(XJSONEvent event) {
+		counters(decodes, event.type()).add(event);
+	}
+	
+	@Override
+	public void onStringify(XJSONEvent event) {
+		counters(encodes, event.type()).add(event);
+	}
+	
+	private static Counters counters(Map<Class<?>, Counters> map, Class<?> type) {
+		Class<?> key = type == null ? Void.class : type;
+		Counters c = map.get(key);
+		return c != null ? c : map.computeIfAbsent(key, k -> new Counters());
+	}
+	
+	public long decodes(Class<?> type) {
+		Counters c = decodes.get(type);
+		return c == null ? 0 : c.calls.sum();
+	}
+	
+	public long decodeNanos(Class<?> type) {
+		Counters c = decodes.get(type);
+		return c == null ? 0 : c.nanos.sum();
+	}
+	
+	public long decodeSize(Class<?> type) {
+		Counters c = decodes.get(type);
+		return c == null ? 0 : c.size.sum();
+	}
+	
+	public long decodeErrors(Class<?> type) {
+		Counters c = decodes.get(type);
+		return c == null ? 0 : c.errors.sum();
+	}
+	
+	public long encodes(Class<?> type) {
+		Counters c = encodes.get(type);
+		return c == null ? 0 : c.calls.sum();
+	}
+	
+	public long encodeNanos(Class<?> type) {
+		Counters c = encodes.get(type);
+		return c == null ? 0 : c.nanos.sum();
+	}
+	
+	public long encodeSize(Class<?> type) {
+		Counters c = encodes.get(type);
+		return c == null ? 0 : c.size.sum();
+	}
+	
+	public long encodeErrors(Class<?> type) {
+		Counters c = encodes.get(type);
+		return c == null ? 0 : c.errors.sum();
+	}
+	
+	public void reset() {
+		decodes.clear();
+		encodes.clear();
+	}
+	
+	/**
+	 * one line per class and direction, sorted by class name
+	 * */
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		report(sb, "decode", decodes);
+		report(sb, "encode", encodes);
+		return sb.toString();
+	}
+	
+	private static void report(StringBuilder sb, String kind, Map<Class<?>, Counters> map) {
+		Map<String, Counters> sorted = new TreeMap<>();
+		for(Map.Entry<Class<?>, Counters> e : map.entrySet()) {
+			sorted.put(e.getKey().getName(), e.getValue());
+		}
+		for(Map.Entry<String, Counters> e : sorted.entrySet()) {
+			Counters c = e.getValue();
+			long calls = c.calls.sum();
+			sb.append(kind).append(' ').append(e.getKey())
+				.append(" calls=").append(calls)
+				.append(" errors=").append(c.errors.sum())
+				.append(" size=").append(c.size.sum())
+				.append(" avgNanos=").append(calls == 0 ? 0 : c.nanos.sum() / calls)
+				.append('\n');
+		}
+	}
+}
@@ -0,0 +1,346 @@
+package json.xjson;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * read only json object kept as parallel key and value arrays.
+ * numbers are stored unboxed in a side array and only boxed when read
+ * through the Map view, objects above INDEX_THRESHOLD members get a
+ * small open addressing index, smaller ones are scanned.
+ * */
+public final class XJSONObject extends AbstractMap<String, Object> {
+
+	static final int INDEX_THRESHOLD = 8;
+
+	/**
+	 * markers in the value array for numbers living in prims
+	 * */
+	static final Object INT_SLOT = new Object();
+	static final Object LONG_SLOT = new Object();
+	static final Object DOUBLE_SLOT = new Object();
+
+	static final XJSONObject EMPTY =
+			new XJSONObject(new String[0], new Object[0], null);
+
+	final String[] keys;
+	final Object[] values;
+	final long[] prims;
+	final int[] index;
+
+	XJSONObject(String[] keys, Object[] values, long[] prims) {
+		this(keys, values, prims, keys.length > INDEX_THRESHOLD ? buildIndex(keys) : null);
+	}
+
+	XJSONObject(String[] keys, Object[] values, long[] prims, int[] index) {
+		this.keys = keys;
+		this.values = values;
+		this.prims = prims;
+		this.index = index;
+	}
+
+	/**
+	 * members in parse order, a repeated key keeps its first position
+	 * and its last value like LinkedHashMap.put does
+	 * */
+	static XJSONObject of(String[] keys, Object[] values, long[] prims) {
+		if(keys.length == 0) {
+			return EMPTY;
+		}
+		int n = keys.length;
+		int kept = n;
+		for(int i = 1; i < n; i++) {
+			for(int j = 0; j < i; j++) {
+				if(keys[j] != null && keys[j].equals(keys[i])) {
+					values[j] = values[i];
+					if(prims != null) {
+						prims[j] = prims[i];
+					}
+					keys[i] = null;
+					--kept;
+					break;
+				}
+			}
+			if(n > INDEX_THRESHOLD && i == INDEX_THRESHOLD) {
+				return ofLarge(keys, values, prims, kept);
+			}
+		}
+		if(kept != n) {
+			return compact(keys, values, prims, kept);
+		}
+		return new XJSONObject(keys, values, prims);
+	}
+
+	static XJSONObject ofLarge(String[] keys, Object[] values, long[] prims, int kept) {
+		int n = keys.length;
+		int[] table = new int[tableSize(n)];
+		int mask = table.length - 1;
+		for(int i = 0; i < n; i++) {
+			if(keys[i] == null) {
+				continue;
+			}
+			int h = spread(keys[i].hashCode()) & mask;
+			while(true) {
+				int slot = table[h];
+				if(slot == 0) {
+					table[h] = i + 1;
+					break;
+				}
+				if(keys[slot - 1].equals(keys[i])) {
+					values[slot - 1] = values[i];
+					if(prims != null) {
+						prims[slot - 1] = prims[i];
+					}
+					keys[i] = null;
+					--kept;
+					break;
+				}
+				h = (h + 1) & mask;
+			}
+		}
+		if(kept != n) {
+			return compact(keys, values, prims, kept);
+		}
+		return new XJSONObject(keys, values, prims, table);
+	}
+
+	static XJSONObject compact(String[] keys, Object[] values, long[] prims, int kept) {
+		String[] k = new String[kept];
+		Object[] v = new Object[kept];
+		long[] p = prims == null ? null : new long[kept];
+		int j = 0;
+		for(int i = 0; i < keys.length; i++) {
+			if(keys[i] == null) {
+				continue;
+			}
+			k[j] = keys[i];
+			v[j] = values[i];
+			if(p != null) {
+				p[j] = prims[i];
+			}
+			++j;
+		}
+		return new XJSONObject(k, v, p);
+	}
+
+	static int tableSize(int n) {
+		int size = Integer.highestOneBit(n) << 2;
+		return size < 16 ? 16 : size;
+	}
+
+	static int spread(int h) {
+		return h ^ (h >>> 16);
+	}
+
+	static int[] buildIndex(String[] keys) {
+		int[] table = new int[tableSize(keys.length)];
+		int mask = table.length - 1;
+		for(int i = 0; i < keys.length; i++) {
+			int h = spread(keys[i].hashCode()) & mask;
+			while(table[h] != 0) {
+				h = (h + 1) & mask;
+			}
+			table[h] = i + 1;
+		}
+		return table;
+	}
+
+	/**
+	 * rebuilds the index of a pooled node whose members were overwritten,
+	 * false when a key repeats and the node can not be used as it is
+	 * */
+	boolean reindex() {
+		int n = keys.length;
+		if(index == null) {
+			for(int i = 1; i < n; i++) {
+				for(int j = 0; j < i; j++) {
+					if(keys[j].equals(keys[i])) {
+						return false;
+					}
+				}
+			}
+			return true;
+		}
+		Arrays.fill(index, 0);
+		int mask = index.length - 1;
+		for(int i = 0; i < n; i++) {
+			int h = spread(keys[i].hashCode()) & mask;
+			while(index[h] != 0) {
+				if(keys[index[h] - 1].equals(keys[i])) {
+					return false;
+				}
+				h = (h + 1) & mask;
+			}
+			index[h] = i + 1;
+		}
+		return true;
+	}
+
+	static Object box(Object v, long[] prims, int i) {
+		if(v == INT_SLOT) {
+			return (int) prims[i];
+		}
+		if(v == LONG_SLOT) {
+			return prims[i];
+		}
+		if(v == DOUBLE_SLOT) {
+			return Double.longBitsToDouble(prims[i]);
+		}
+		return v;
+	}
+
+	int indexOf(Object key) {
+		if(!(key instanceof String)) {
+			return -1;
+		}
+		if(index == null) {
+			for(int i = 0; i < keys.length; i++) {
+				if(keys[i].equals(key)) {
+					return i;
+				}
+			}
+			return -1;
+		}
+		int mask = index.length - 1;
+		int h = spread(key.hashCode()) & mask;
+		while(true) {
+			int slot = index[h];
+			if(slot == 0) {
+				return -1;
+			}
+			if(keys[slot - 1].equals(key)) {
+				return slot - 1;
+			}
+			h = (h + 1) & mask;
+		}
+	}
+
+	public String key(int i) {
+		return keys[i];
+	}
+
+	public Object value(int i) {
+		return box(values[i], prims, i);
+	}
+
+	@Override
+	public int size() {
+		return keys.length;
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return indexOf(key) >= 0;
+	}
+
+	@Override
+	public Object get(Object key) {
+		int i = indexOf(key);
+		return i < 0 ? null : box(values[i], prims, i);
+	}
+
+	public boolean isNumber(String key) {
+		int i = indexOf(key);
+		return i >= 0 && (values[i] == INT_SLOT || values[i] == LONG_SLOT ||
+				values[i] == DOUBLE_SLOT || values[i] instanceof Number);
+	}
+
+	/**
+	 * unboxed number member, 0 when missing
+	 * */
+	public long getLong(String key) {
+		int i = indexOf(key);
+		if(i < 0) {
+			return 0;
+		}
+		Object v = values[i];
+		if(v == INT_SLOT || v == LONG_SLOT) {
+			return prims[i];
+		}
+		if(v == DOUBLE_SLOT) {
+			return (long) Double.longBitsToDouble(prims[i]);
+		}
+		if(v instanceof Number) {
+			return ((Number) v).longValue();
+		}
+		throw new XJSONException("member '" + key + "' is not a number");
+	}
+
+	public double getDouble(String key) {
+		int i = indexOf(key);
+		if(i < 0) {
+			return 0;
+		}
+		Object v = values[i];
+		if(v == INT_SLOT || v == LONG_SLOT) {
+			return prims[i];
+		}
+		if(v == DOUBLE_SLOT) {
+			return Double.longBitsToDouble(prims[i]);
+		}
+		if(v instanceof Number) {
+			return ((Number) v).doubleValue();
+		}
+		throw new XJSONException("member '" + key + "' is not a number");
+	}
+
+	public String getString(String key) {
+		Object v = get(key);
+		return v == null ? null : v.toString();
+	}
+
+	public XJSONObject getObject(String key) {
+		return (XJSONObject) get(key);
+	}
+
+	public XJSONArray getArray(String key) {
+		return (XJSONArray) get(key);
+	}
+
+	@Override
+	public Set<Entry<String, Object>> entrySet() {
+		return new AbstractSet<Entry<String, Object>>() {
+			@Override
+			public Iterator<Entry<String, Object>> iterator() {
+				return new Iterator<Entry<String, Object>>() {
+					int i = 0;
+
+					@Override
+					public boolean hasNext() {
+						return i < keys.length;
+					}
+
+					@Override
+					public Entry<String, Object> next() {
+						if(i >= keys.length) {
+							throw new NoSuchElementException();
+						}
+						Entry<String, Object> e = new SimpleImmutableEntry<>(
+								keys[i], box(values[i], prims, i));
+						++i;
+						return e;
+					}
+				};
+			}
+
+			@Override
+			public int size() {
+				return keys.length;
+			}
+		};
+	}
+
+	@Override
+	public int hashCode() {
+		int h = 0;
+		for(int i = 0; i < keys.length; i++) {
+			Object v = box(values[i], prims, i);
+			h += keys[i].hashCode() ^ (v == null ? 0 : v.hashCode());
+		}
+		return h;
+	}
+}
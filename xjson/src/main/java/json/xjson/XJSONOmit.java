@@ -0,0 +1,26 @@
+package json.xjson;
+
+/**
+ * which class fields stringify leaves out, each level includes the
+ * ones before it. map entries and array elements are always written
+ * */
+public enum XJSONOmit {
+	
+	NONE,
+	
+	/**
+	 * fields holding null
+	 * */
+	NULLS,
+	
+	/**
+	 * also empty strings, collections, maps, arrays and optionals
+	 * */
+	EMPTIES,
+	
+	/**
+	 * also zero numbers, false and '\0'
+	 * */
+	DEFAULTS
+	
+}
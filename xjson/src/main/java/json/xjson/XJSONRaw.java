@@ -0,0 +1,42 @@
+package json.xjson;
+
+/**
+ * a json fragment that is already text, validated once when created
+ * and copied verbatim by the encoder, except in canonical output
+ * */
+public final class XJSONRaw {
+
+	final String json;
+	/**
+	 * canonical form, encoded on first use
+	 * */
+	volatile String canonical;
+
+	XJSONRaw(String json) {
+		this.json = json;
+	}
+
+	public static XJSONRaw of(String json) throws XJSONException {
+		if(null == json || json.trim().isEmpty()) {
+			throw new XJSONException("input json string can not be null or empty.");
+		}
+		String trimmed = json.trim();
+		JSONDecoder.validate(trimmed.toCharArray());
+		return new XJSONRaw(trimmed);
+	}
+
+	@Override
+	public int hashCode() {
+		return json.hashCode();
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		return obj instanceof XJSONRaw && json.equals(((XJSONRaw) obj).json);
+	}
+
+	@Override
+	public String toString() {
+		return json;
+	}
+}
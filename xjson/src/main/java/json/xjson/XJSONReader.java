@@ -0,0 +1,286 @@
+package json.xjson;
+
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * token reader handed to XJSONCodec.read, a cursor over the parsed
+ * value being bound. numbers are read as numbers, objects and arrays
+ * are stepped through member by member.
+ * */
+public final class XJSONReader {
+
+	public enum Token {
+		BEGIN_OBJECT, END_OBJECT, BEGIN_ARRAY, END_ARRAY,
+		NAME, STRING, NUMBER, BOOLEAN, NULL, END_DOCUMENT
+	}
+
+	/**
+	 * open containers, entry iterators for objects and element
+	 * iterators for arrays, allocated on the first container
+	 * */
+	Iterator<?>[] stack;
+	boolean[] objects;
+	int depth;
+
+	Object value;
+	boolean hasValue;
+	String name;
+
+	XJSONReader(Object value) {
+		this.value = value;
+		this.hasValue = true;
+	}
+
+	public Token peek() {
+		if(name != null) {
+			return Token.NAME;
+		}
+		if(hasValue) {
+			Object v = value;
+			if(v == null) {
+				return Token.NULL;
+			}
+			if(v instanceof Map) {
+				return Token.BEGIN_OBJECT;
+			}
+			if(v instanceof List) {
+				return Token.BEGIN_ARRAY;
+			}
+			if(v instanceof Number) {
+				return Token.NUMBER;
+			}
+			if(v instanceof Boolean) {
+				return Token.BOOLEAN;
+			}
+			return Token.STRING;
+		}
+		if(depth == 0) {
+			return Token.END_DOCUMENT;
+		}
+		Iterator<?> it = stack[depth - 1];
+		if(!it.hasNext()) {
+			return objects[depth - 1] ? Token.END_OBJECT : Token.END_ARRAY;
+		}
+		if(objects[depth - 1]) {
+			Map.Entry<?, ?> e = (Map.Entry<?, ?>) it.next();
+			name = String.valueOf(e.getKey());
+			value = e.getValue();
+		} else {
+			value = it.next();
+		}
+		hasValue = true;
+		return peek();
+	}
+
+	XJSONException unexpected(Token expected) {
+		return new XJSONException("expected " + expected + " but was " + peek());
+	}
+
+	Object take(Token expected) throws XJSONException {
+		if(peek() != expected) {
+			throw unexpected(expected);
+		}
+		Object v = value;
+		value = null;
+		hasValue = false;
+		return v;
+	}
+
+	void push(Iterator<?> it, boolean object) {
+		if(stack == null) {
+			stack = new Iterator<?>[8];
+			objects = new boolean[8];
+		} else if(depth == stack.length) {
+			Iterator<?>[] s = new Iterator<?>[depth << 1];
+			System.arraycopy(stack, 0, s, 0, depth);
+			stack = s;
+			boolean[] o = new boolean[depth << 1];
+			System.arraycopy(objects, 0, o, 0, depth);
+			objects = o;
+		}
+		stack[depth] = it;
+		objects[depth++] = object;
+	}
+
+	public boolean hasNext() {
+		Token t = peek();
+		return t != Token.END_OBJECT && t != Token.END_ARRAY && t != Token.END_DOCUMENT;
+	}
+
+	public void beginObject() throws XJSONException {
+		Map<?, ?> m = (Map<?, ?>) take(Token.BEGIN_OBJECT);
+		push(m.entrySet().iterator(), true);
+	}
+
+	public void endObject() throws XJSONException {
+		if(peek() != Token.END_OBJECT) {
+			throw unexpected(Token.END_OBJECT);
+		}
+		--depth;
+	}
+
+	public void beginArray() throws XJSONException {
+		List<?> l = (List<?>) take(Token.BEGIN_ARRAY);
+		push(l.iterator(), false);
+	}
+
+	public void endArray() throws XJSONException {
+		if(peek() != Token.END_ARRAY) {
+			throw unexpected(Token.END_ARRAY);
+		}
+		--depth;
+	}
+
+	public String nextName() throws XJSONException {
+		if(peek() != Token.NAME) {
+			throw unexpected(Token.NAME);
+		}
+		String n = name;
+		name = null;
+		return n;
+	}
+
+	/**
+	 * numbers and booleans are given as their text
+	 * */
+	public String nextString() throws XJSONException {
+		Token t = peek();
+		if(t != Token.STRING && t != Token.NUMBER && t != Token.BOOLEAN) {
+			throw unexpected(Token.STRING);
+		}
+		return String.valueOf(take(t));
+	}
+
+	public boolean nextBoolean() throws XJSONException {
+		return (Boolean) take(Token.BOOLEAN);
+	}
+
+	public void nextNull() throws XJSONException {
+		take(Token.NULL);
+	}
+
+	/**
+	 * a number or the string it may be quoted as
+	 * */
+	Object nextScalar() throws XJSONException {
+		Token t = peek();
+		if(t != Token.STRING && t != Token.NUMBER) {
+			throw unexpected(Token.NUMBER);
+		}
+		return take(t);
+	}
+
+	public int nextInt() throws XJSONException {
+		return intValue(nextScalar());
+	}
+
+	public long nextLong() throws XJSONException {
+		return longValue(nextScalar());
+	}
+
+	public double nextDouble() throws XJSONException {
+		return doubleValue(nextScalar());
+	}
+
+	/**
+	 * the conversions behind nextInt, nextLong and nextDouble, also
+	 * used directly when a parsed value is bound to a scalar type
+	 * */
+	static int intValue(Object v) throws XJSONException {
+		if(v instanceof String) {
+			try {
+				return Integer.parseInt((String) v);
+			} catch(NumberFormatException e) {
+				throw new XJSONException("can not read int from '" + v + "'");
+			}
+		}
+		long n = integral(number(v, "int"), "int");
+		if(n < Integer.MIN_VALUE || n > Integer.MAX_VALUE) {
+			throw new XJSONException("can not read int from " + v);
+		}
+		return (int) n;
+	}
+
+	static long longValue(Object v) throws XJSONException {
+		if(v instanceof String) {
+			try {
+				return Long.parseLong((String) v);
+			} catch(NumberFormatException e) {
+				throw new XJSONException("can not read long from '" + v + "'");
+			}
+		}
+		return integral(number(v, "long"), "long");
+	}
+
+	static double doubleValue(Object v) throws XJSONException {
+		if(v instanceof String) {
+			try {
+				return Double.parseDouble((String) v);
+			} catch(NumberFormatException e) {
+				throw new XJSONException("can not read number from '" + v + "'");
+			}
+		}
+		return number(v, "double").doubleValue();
+	}
+
+	static Number number(Object v, String type) throws XJSONException {
+		if(v instanceof Number) {
+			return (Number) v;
+		}
+		throw new XJSONException("can not read " + type + " from " + v);
+	}
+
+	/**
+	 * numbers without a fraction that fit a long, anything else would be
+	 * silently narrowed
+	 * */
+	static long integral(Number n, String type) throws XJSONException {
+		if(n instanceof Integer || n instanceof Long || n instanceof Short || n instanceof Byte) {
+			return n.longValue();
+		}
+		try {
+			if(n instanceof BigInteger) {
+				return ((BigInteger) n).longValueExact();
+			}
+			if(n instanceof BigDecimal) {
+				return ((BigDecimal) n).longValueExact();
+			}
+		} catch(ArithmeticException e) {
+			throw new XJSONException("can not read " + type + " from " + n);
+		}
+		double d = n.doubleValue();
+		if(d != Math.rint(d) || d < -0x1p63 || d >= 0x1p63) {
+			throw new XJSONException("can not read " + type + " from " + n);
+		}
+		return (long) d;
+	}
+
+	/**
+	 * the next value bound to type the way a field of that type is bound
+	 * */
+	public Object read(Type type) throws XJSONException {
+		Object v = nextValue();
+		return v == null ? null : JSONReflect.fromJavaType(type, v);
+	}
+
+	/**
+	 * the next value as parsed, maps, lists and scalars
+	 * */
+	public Object nextValue() throws XJSONException {
+		Token t = peek();
+		if(t == Token.NAME || t == Token.END_OBJECT || t == Token.END_ARRAY ||
+				t == Token.END_DOCUMENT) {
+			throw new XJSONException("expected a value but was " + t);
+		}
+		return take(t);
+	}
+
+	public void skipValue() throws XJSONException {
+		nextValue();
+	}
+}
@@ -0,0 +1,103 @@
+package json.xjson;
+
+/**
+ * string value left in the parsed source, an offset and length into
+ * the source chars. decoding into a String happens on the first
+ * toString call, contentEquals compares unescaped slices in place.
+ * the slice keeps the whole source buffer reachable.
+ * */
+public final class XJSONString implements CharSequence {
+
+	final char[] source;
+	final int offset;
+	final int len;
+	final boolean escaped;
+	String decoded;
+
+	XJSONString(char[] source, int offset, int len, boolean escaped) {
+		this.source = source;
+		this.offset = offset;
+		this.len = len;
+		this.escaped = escaped;
+	}
+
+	/**
+	 * true when the slice holds escape sequences and toString has work to do
+	 * */
+	public boolean hasEscapes() {
+		return escaped;
+	}
+
+	@Override
+	public int length() {
+		return escaped ? toString().length() : len;
+	}
+
+	@Override
+	public char charAt(int index) {
+		if(escaped) {
+			return toString().charAt(index);
+		}
+		if(index < 0 || index >= len) {
+			throw new IndexOutOfBoundsException("index " + index + ", length " + len);
+		}
+		return source[offset + index];
+	}
+
+	@Override
+	public CharSequence subSequence(int start, int end) {
+		return toString().subSequence(start, end);
+	}
+
+	public boolean contentEquals(CharSequence cs) {
+		if(cs == null) {
+			return false;
+		}
+		if(escaped) {
+			return toString().contentEquals(cs);
+		}
+		if(cs.length() != len) {
+			return false;
+		}
+		for(int i = 0; i < len; i++) {
+			if(source[offset + i] != cs.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if(this == obj) {
+			return true;
+		}
+		return obj instanceof XJSONString && contentEquals((XJSONString) obj);
+	}
+
+	/**
+	 * same value as String.hashCode of the decoded text
+	 * */
+	@Override
+	public int hashCode() {
+		if(escaped) {
+			return toString().hashCode();
+		}
+		int h = 0;
+		for(int i = 0; i < len; i++) {
+			h = 31 * h + source[offset + i];
+		}
+		return h;
+	}
+
+	@Override
+	public String toString() {
+		String s = decoded;
+		if(s == null) {
+			s = escaped ? JSONTreeParser.unescape(source, offset, len) :
+					new String(source, offset, len);
+			decoded = s;
+		}
+		return s;
+	}
+}